@@ -2,13 +2,23 @@ package com.sda.travelagency;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class TravelAgencyApplication {
 
+	/**
+	 * If set to true, application exits as soon as it is ready. It is used by training run of fast-startup build,
+	 * which records classes loaded during startup into class data sharing archive when JVM exits, and by StartupBenchmark.
+	 **/
+	public static final String EXIT_AFTER_READY = "travelagency.startup.exit-after-ready";
+
 	public static void main(String[] args) {
 
-		SpringApplication.run(TravelAgencyApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(TravelAgencyApplication.class, args);
+		if (context.getEnvironment().getProperty(EXIT_AFTER_READY, Boolean.class, false)) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
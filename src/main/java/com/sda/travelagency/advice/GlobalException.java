@@ -1,6 +1,9 @@
 package com.sda.travelagency.advice;
 
 import com.sda.travelagency.exception.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -12,24 +15,32 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 @ControllerAdvice
 public class GlobalException {
 
+    private static final String ERRORS_METRIC = "travelagency.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    public GlobalException(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(HotelNotFoundException.class)
     public ProblemDetail handleHotelNotFoundException(HotelNotFoundException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+        return problemDetail(e, HttpStatus.NOT_FOUND, e.getMessage());
     }
 
     @ExceptionHandler(HotelCantBeDeletedException.class)
     public ProblemDetail handleHotelCantBeDeletedException(HotelCantBeDeletedException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+        return problemDetail(e, HttpStatus.CONFLICT, e.getMessage());
     }
 
     @ExceptionHandler(OfferNotFoundException.class)
     public ProblemDetail handleOfferNotFoundException(OfferNotFoundException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+        return problemDetail(e, HttpStatus.NOT_FOUND, e.getMessage());
     }
 
     @ExceptionHandler(CityNotFoundException.class)
     public ProblemDetail handleCityNotFoundException(CityNotFoundException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+        return problemDetail(e, HttpStatus.NOT_FOUND, e.getMessage());
     }
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ProblemDetail handleValidationException(MethodArgumentNotValidException ex) {
@@ -37,18 +48,58 @@ public class GlobalException {
         ex.getBindingResult().getFieldErrors().forEach(error -> {
             errors.append(error.getField()).append(": ").append(error.getDefaultMessage()).append(", ");
         });
-        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, errors.toString());
+        return problemDetail(ex, HttpStatus.BAD_REQUEST, errors.toString());
     }
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ProblemDetail handleUserAlreadyExistsException(UserAlreadyExistsException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+        return problemDetail(e, HttpStatus.BAD_REQUEST, e.getMessage());
     }
     @ExceptionHandler(OfferNotAvailableException.class)
     public ProblemDetail handleOfferNotAvailableException(OfferNotAvailableException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+        return problemDetail(e, HttpStatus.NOT_FOUND, e.getMessage());
+    }
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursorException(InvalidCursorException e){
+        return problemDetail(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ProblemDetail handleDataIntegrityViolationException(DataIntegrityViolationException e){
+        return problemDetail(e, HttpStatus.CONFLICT, "Name is already taken or still referenced");
+    }
+    @ExceptionHandler(OffersNotReservedException.class)
+    public ProblemDetail handleOffersNotReservedException(OffersNotReservedException e){
+        ProblemDetail problemDetail = problemDetail(e, HttpStatus.CONFLICT, e.getMessage());
+        problemDetail.setProperty("outcomes", e.getOutcomes());
+        return problemDetail;
+    }
+    @ExceptionHandler(TokenNotIssuedException.class)
+    public ProblemDetail handleTokenNotIssuedException(TokenNotIssuedException e){
+        return problemDetail(e, HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+    @ExceptionHandler(PasswordAuthenticationRequiredException.class)
+    public ProblemDetail handlePasswordAuthenticationRequiredException(PasswordAuthenticationRequiredException e){
+        return problemDetail(e, HttpStatus.FORBIDDEN, e.getMessage());
     }
     @ExceptionHandler(SessionExpiredException.class)
     public ProblemDetail handleSessionExpiredExceptionException(SessionExpiredException e){
-        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+        return problemDetail(e, HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    /**
+     * This method increments travelagency.errors counter tagged with handled exception and response status
+     * and creates ProblemDetail returned by handlers.
+     * @param e
+     * @param status
+     * @param detail
+     * @return ProblemDetail
+     **/
+    private ProblemDetail problemDetail(Exception e, HttpStatus status, String detail) {
+        Counter.builder(ERRORS_METRIC)
+                .description("Exceptions handled by GlobalException")
+                .tag("exception", e.getClass().getSimpleName())
+                .tag("status", String.valueOf(status.value()))
+                .register(meterRegistry)
+                .increment();
+        return ProblemDetail.forStatusAndDetail(status, detail);
     }
 }
@@ -0,0 +1,18 @@
+package com.sda.travelagency.configuration;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Catalogue read results are cached in bounded Caffeine caches configured by spring.cache.caffeine.spec.
+ * Cached entries are evicted by the admin methods of HotelService and OfferService which change them.
+ **/
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String HOTEL = "hotel";
+    public static final String HOTELS_BY_CITY = "hotelsByCity";
+    public static final String OFFER = "offer";
+    public static final String OFFERS_BY_PRICE = "offersByPrice";
+    public static final String OFFERS_BY_HOTEL = "offersByHotel";
+}
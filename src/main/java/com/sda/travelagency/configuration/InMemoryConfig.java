@@ -13,7 +13,7 @@ import org.springframework.security.provisioning.UserDetailsManager;
 
 @Configuration
 @EnableWebSecurity
-@Profile("test")
+@Profile({"test", "perf"})
 public class InMemoryConfig {
 
     @Bean
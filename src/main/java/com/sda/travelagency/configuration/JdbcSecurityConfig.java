@@ -1,6 +1,7 @@
 package com.sda.travelagency.configuration;
 
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -37,18 +38,24 @@ public class JdbcSecurityConfig {
      * This bean is used to create initial admin account.
      * It is using User builder to build UserDetails object with default data which is saved in UserDetailsManager
      * Password is encoded by BCryptPasswordEncoder.
+     * Users table is kept between restarts, so account is created only if it does not exist yet.
      * @return InitializingBean
      **/
     @Bean
+    @DependsOnDatabaseInitialization
     public InitializingBean initializingBean(DataSource dataSource) {
         return () -> {
+            UserDetailsManager userDetailsManager = userDetailsManager(dataSource);
+            if (userDetailsManager.userExists("admin")) {
+                return;
+            }
             String password = new BCryptPasswordEncoder().encode("password");
             UserDetails user = User
                     .withUsername("admin")
                     .password(password)
                     .roles("USER","ADMIN")
                     .build();
-            userDetailsManager(dataSource).createUser(user);
+            userDetailsManager.createUser(user);
         };
     }
 }
@@ -0,0 +1,24 @@
+package com.sda.travelagency.configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_METRIC = "travelagency.service";
+
+    /**
+     * This bean makes @Timed annotations on services record a timer (with percentile histogram) per class and method,
+     * tagged with the exception thrown, if any.
+     * Repository queries are timed by Spring Boot as spring.data.repository.invocations and Hibernate statistics are bound as hibernate.* meters.
+     * @param meterRegistry
+     * @return TimedAspect
+     **/
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package com.sda.travelagency.configuration;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.concurrent.Executors;
+
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.Hints.class)
+public class NativeHintsConfig {
+
+    /**
+     * This class registers what native image cannot discover on its own.
+     * Seed migrations are read from db/seed (Spring Boot registers only db/migration)
+     * and virtual thread executor is looked up by reflection.
+     **/
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("db/seed/*.sql");
+            hints.reflection().registerType(Executors.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
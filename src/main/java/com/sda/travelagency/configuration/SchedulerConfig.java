@@ -0,0 +1,23 @@
+package com.sda.travelagency.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class SchedulerConfig {
+
+    /**
+     * This bean is used to run blocking repository calls of reactive endpoints.
+     * It is bounded by travelagency.reactive.threads threads and travelagency.reactive.queue-size waiting tasks,
+     * so high number of concurrent reactive requests can not exhaust threads nor database connections.
+     * @return Scheduler
+     **/
+    @Bean(destroyMethod = "dispose")
+    public Scheduler catalogScheduler(@Value("${travelagency.reactive.threads:10}") int threads,
+                                      @Value("${travelagency.reactive.queue-size:10000}") int queueSize) {
+        return Schedulers.newBoundedElastic(threads, queueSize, "catalog");
+    }
+}
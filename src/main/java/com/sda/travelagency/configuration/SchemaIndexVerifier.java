@@ -0,0 +1,98 @@
+package com.sda.travelagency.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Component
+@DependsOnDatabaseInitialization
+@ConditionalOnProperty(name = "travelagency.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    private static final List<ExpectedIndex> EXPECTED_INDEXES = List.of(
+            new ExpectedIndex("offer", "UK_offer_name", "ALTER TABLE offer ADD UNIQUE KEY UK_offer_name (name)"),
+            new ExpectedIndex("offer", "IDX_offer_price_id", "ALTER TABLE offer ADD KEY IDX_offer_price_id (price, id)"),
+            new ExpectedIndex("offer", "IDX_offer_user_name_price_id", "ALTER TABLE offer ADD KEY IDX_offer_user_name_price_id (user_name, price, id)"),
+            new ExpectedIndex("hotel", "UK_hotel_name", "ALTER TABLE hotel ADD UNIQUE KEY UK_hotel_name (name)"),
+            new ExpectedIndex("hotel", "IDX_hotel_rating_id", "ALTER TABLE hotel ADD KEY IDX_hotel_rating_id (rating, id)"),
+            new ExpectedIndex("hotel", "FT_hotel_name", "ALTER TABLE hotel ADD FULLTEXT KEY FT_hotel_name (name) WITH PARSER ngram"),
+            new ExpectedIndex("city", "UK_city_name", "ALTER TABLE city ADD UNIQUE KEY UK_city_name (name)"),
+            new ExpectedIndex("country", "IDX_country_name", "ALTER TABLE country ADD KEY IDX_country_name (name)"),
+            new ExpectedIndex("continent", "IDX_continent_name", "ALTER TABLE continent ADD KEY IDX_continent_name (name)"));
+
+    private final DataSource dataSource;
+
+    private final boolean requireIndexes;
+
+    public SchemaIndexVerifier(DataSource dataSource, @Value("${travelagency.schema.require-indexes:true}") boolean requireIndexes) {
+        this.dataSource = dataSource;
+        this.requireIndexes = requireIndexes;
+    }
+
+    /**
+     * This method is called on startup, after schema initialization.
+     * It reads indexes declared on catalogue tables from database metadata and compares them with indexes which lookup queries rely on.
+     * If any index is missing it throws IllegalStateException with statements which create them, so the application fails fast
+     * instead of serving lookups with full table scans.
+     * If travelagency.schema.require-indexes is set to false, missing indexes are only logged as a warning together with the same statements.
+     * @return void
+     * @throws IllegalStateException "Missing database indexes: ..."
+     **/
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        List<ExpectedIndex> missingIndexes = new ArrayList<>();
+        Map<String, Set<String>> existingIndexes = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (ExpectedIndex index : EXPECTED_INDEXES) {
+                Set<String> tableIndexes = existingIndexes.get(index.table());
+                if (tableIndexes == null) {
+                    tableIndexes = readIndexes(metaData, connection, index.table());
+                    existingIndexes.put(index.table(), tableIndexes);
+                }
+                if (!tableIndexes.contains(index.name().toLowerCase(Locale.ROOT))) {
+                    missingIndexes.add(index);
+                }
+            }
+        }
+        if (missingIndexes.isEmpty()) {
+            return;
+        }
+        String fix = missingIndexes.stream().map(index -> index.ddl() + ";").collect(Collectors.joining("\n"));
+        String names = missingIndexes.stream().map(index -> index.table() + "." + index.name()).collect(Collectors.joining(", "));
+        if (requireIndexes) {
+            throw new IllegalStateException("Missing database indexes: " + names + ". Create them with:\n" + fix);
+        }
+        LOGGER.warn("Missing database indexes: {}. Lookups using them fall back to full table scans. Create them with:\n{}", names, fix);
+    }
+
+    private Set<String> readIndexes(DatabaseMetaData metaData, Connection connection, String table) throws SQLException {
+        Set<String> indexes = new HashSet<>();
+        try (ResultSet indexInfo = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, true)) {
+            while (indexInfo.next()) {
+                String indexName = indexInfo.getString("INDEX_NAME");
+                if (indexName != null) {
+                    indexes.add(indexName.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private record ExpectedIndex(String table, String name, String ddl) {
+    }
+}
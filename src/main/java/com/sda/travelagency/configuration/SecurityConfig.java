@@ -1,29 +1,63 @@
 package com.sda.travelagency.configuration;
 
+import com.sda.travelagency.security.AuthenticationCache;
+import com.sda.travelagency.security.CachingAuthenticationProvider;
+import com.sda.travelagency.security.TokenAuthenticationFilter;
+import com.sda.travelagency.security.TokenService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(securedEnabled = true)
 public class SecurityConfig {
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, ObjectProvider<TokenService> tokenService) throws Exception {
+        tokenService.ifAvailable(service -> httpSecurity.addFilterBefore(new TokenAuthenticationFilter(service), BasicAuthenticationFilter.class));
         httpSecurity
                 .httpBasic(Customizer.withDefaults())
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorizationManagerRequestMatcherRegistry
                         -> authorizationManagerRequestMatcherRegistry
+                        .requestMatchers(EndpointRequest.to("health", "info")).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasAuthority("ROLE_ADMIN")
                         .requestMatchers(HttpMethod.GET,"/hotels/**").hasAuthority("ROLE_USER")
                         .requestMatchers(HttpMethod.GET,"/offers/**").hasAuthority("ROLE_USER")
+                        .requestMatchers(HttpMethod.GET,"/reactive/**").hasAuthority("ROLE_USER")
                         .anyRequest().permitAll());
         return httpSecurity.build();
     }
+
+    /**
+     * This bean is used to authenticate users with UserDetailsService and PasswordEncoder,
+     * remembering loaded UserDetails and verified passwords in AuthenticationCache for a short time,
+     * so repeated HTTP Basic requests do not hit database nor run BCrypt comparison.
+     * DaoAuthenticationProvider does not use the cache itself, so UserDetails are cached only together with a verified password.
+     * If no PasswordEncoder bean is declared, delegating PasswordEncoder is used.
+     * @return AuthenticationProvider
+     **/
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         ObjectProvider<PasswordEncoder> passwordEncoder,
+                                                         AuthenticationCache authenticationCache) {
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder.getIfAvailable(PasswordEncoderFactories::createDelegatingPasswordEncoder));
+        return new CachingAuthenticationProvider(daoAuthenticationProvider, authenticationCache);
+    }
 }
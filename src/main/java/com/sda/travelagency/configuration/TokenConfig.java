@@ -0,0 +1,38 @@
+package com.sda.travelagency.configuration;
+
+import com.sda.travelagency.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+@Configuration
+@ConditionalOnProperty(name = "travelagency.security.token.enabled", havingValue = "true")
+public class TokenConfig {
+
+    /**
+     * This bean is used to issue and verify signed tokens, which are an alternative to HTTP Basic authentication.
+     * Tokens are signed with base64 encoded travelagency.security.token.secret.
+     * If secret is not set, random one is generated on startup, so tokens are valid only for this instance until restart.
+     * Revocation after password change or account deletion works only on the instance which handled it.
+     * If several instances share the secret, keep travelagency.security.token.ttl short, because it bounds how long revoked tokens are accepted elsewhere.
+     * @return TokenService
+     **/
+    @Bean
+    public TokenService tokenService(@Value("${travelagency.security.token.secret:}") String secret,
+                                     @Value("${travelagency.security.token.ttl:15m}") Duration ttl) {
+        byte[] key;
+        if (secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = Base64.getDecoder().decode(secret);
+        }
+        return new TokenService(key, ttl, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,54 @@
+package com.sda.travelagency.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@ConditionalOnProperty(name = "travelagency.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * This bean creates an executor which starts a new virtual thread for every task.
+     * Executors.newVirtualThreadPerTaskExecutor is looked up reflectively, so the project still compiles with Java 17
+     * and only running with travelagency.threads.virtual=true requires Java 21 (see java21 maven profile).
+     * @return ExecutorService
+     * @throws IllegalStateException "Virtual threads require Java 21 or newer"
+     **/
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer", e);
+        }
+    }
+
+    /**
+     * This bean makes Tomcat handle every request, and so every blocking repository call made by services, on its own virtual thread.
+     * @param virtualThreadExecutor
+     * @return TomcatProtocolHandlerCustomizer
+     **/
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * This bean replaces Spring Boot task executor used by asynchronous MVC responses (for example offers export),
+     * so they also run on virtual threads instead of a bounded platform thread pool.
+     * @param virtualThreadExecutor
+     * @return AsyncTaskExecutor
+     **/
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+        return new TaskExecutorAdapter(virtualThreadExecutor);
+    }
+}
@@ -0,0 +1,91 @@
+package com.sda.travelagency.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "travelagency.threads.virtual", havingValue = "true")
+public class VirtualThreadGuard implements InitializingBean, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadGuard.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final DataSource dataSource;
+
+    private final int maxPoolSize;
+
+    private final Duration maxConnectionTimeout;
+
+    private final Duration pinningThreshold;
+
+    private RecordingStream pinningRecording;
+
+    public VirtualThreadGuard(DataSource dataSource,
+                              @Value("${travelagency.threads.virtual.max-pool-size:50}") int maxPoolSize,
+                              @Value("${travelagency.threads.virtual.max-connection-timeout:5s}") Duration maxConnectionTimeout,
+                              @Value("${travelagency.threads.virtual.pinning-threshold:20ms}") Duration pinningThreshold) {
+        this.dataSource = dataSource;
+        this.maxPoolSize = maxPoolSize;
+        this.maxConnectionTimeout = maxConnectionTimeout;
+        this.pinningThreshold = pinningThreshold;
+    }
+
+    /**
+     * This method is called on startup when virtual threads are enabled.
+     * With virtual threads the number of request threads is no longer a limit, so HikariCP pool becomes the only one:
+     * it throws IllegalStateException if the pool is larger than travelagency.threads.virtual.max-pool-size,
+     * because such pool moves the bottleneck to MySQL connections, and if connection timeout is longer than
+     * travelagency.threads.virtual.max-connection-timeout, because waiting requests would pile up instead of failing fast.
+     * Afterwards it starts a JFR recording which logs every virtual thread pinned longer than travelagency.threads.virtual.pinning-threshold
+     * together with its stack trace, so synchronized blocks on the hot path can be found.
+     * @return void
+     * @throws IllegalStateException "HikariCP maximum pool size ... exceeds ..." or "HikariCP connection timeout ... exceeds ..."
+     **/
+    @Override
+    public void afterPropertiesSet() {
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            if (hikariDataSource.getMaximumPoolSize() > maxPoolSize) {
+                throw new IllegalStateException("HikariCP maximum pool size " + hikariDataSource.getMaximumPoolSize()
+                        + " exceeds " + maxPoolSize + " allowed with virtual threads");
+            }
+            if (hikariDataSource.getConnectionTimeout() > maxConnectionTimeout.toMillis()) {
+                throw new IllegalStateException("HikariCP connection timeout " + hikariDataSource.getConnectionTimeout()
+                        + "ms exceeds " + maxConnectionTimeout.toMillis() + "ms allowed with virtual threads");
+            }
+        }
+        pinningRecording = new RecordingStream();
+        pinningRecording.enable(PINNED_EVENT).withThreshold(pinningThreshold).withStackTrace();
+        pinningRecording.onEvent(PINNED_EVENT, this::logPinning);
+        pinningRecording.startAsync();
+    }
+
+    @Override
+    public void destroy() {
+        if (pinningRecording != null) {
+            pinningRecording.close();
+        }
+    }
+
+    private void logPinning(RecordedEvent event) {
+        String frames = event.getStackTrace() == null ? "unknown" : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining(" <- "));
+        LOGGER.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frames);
+    }
+}
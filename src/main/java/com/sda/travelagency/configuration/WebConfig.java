@@ -0,0 +1,36 @@
+package com.sda.travelagency.configuration;
+
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.serializer.JsonSerializableHttpMessageConverter;
+import com.sda.travelagency.serializer.JsonSerializableWriter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * This bean is used to write DTO classes annotated with @JsonSerializable.
+     * Writers for all of them are prepared on startup.
+     * @return JsonSerializableWriter
+     **/
+    @Bean
+    public JsonSerializableWriter jsonSerializableWriter() {
+        return JsonSerializableWriter.forPackage(OfferDto.class.getPackageName());
+    }
+
+    /**
+     * This method registers JsonSerializableHttpMessageConverter before Jackson,
+     * so responses with @JsonSerializable DTOs and lists of them are written without Jackson reflective serialization.
+     * @param converters
+     * @return void
+     **/
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new JsonSerializableHttpMessageConverter(jsonSerializableWriter()));
+    }
+}
@@ -46,4 +46,10 @@ public class AccountController {
         accountService.changePassword(password);
         return new ResponseEntity<>("User updated", HttpStatus.ACCEPTED);
     }
-}
\ No newline at end of file
+
+    @Secured("ROLE_USER")
+    @PostMapping("/login")
+    ResponseEntity<String> login() {
+        return new ResponseEntity<>(accountService.login(), HttpStatus.CREATED);
+    }
+}
\ No newline at end of file
@@ -1,13 +1,19 @@
 package com.sda.travelagency.controller;
 
+import com.sda.travelagency.dtos.CursorPage;
 import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.ImportReport;
 import com.sda.travelagency.service.HotelService;
+import com.sda.travelagency.service.ImportService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,8 +21,11 @@ import java.util.List;
 public class HotelController {
     private final HotelService hotelService;
 
-    public HotelController(HotelService hotelService) {
+    private final ImportService importService;
+
+    public HotelController(HotelService hotelService, ImportService importService) {
         this.hotelService = hotelService;
+        this.importService = importService;
     }
 
     @GetMapping
@@ -24,6 +33,11 @@ public class HotelController {
         return hotelService.getAllHotels();
     }
 
+    @GetMapping("/page")
+    CursorPage<HotelDto> getHotelsPage(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return hotelService.getHotelsPage(cursor, size);
+    }
+
     @GetMapping("/{name}")
     public HotelDto getHotel(@PathVariable String name){
         return hotelService.getHotel(name);
@@ -34,6 +48,11 @@ public class HotelController {
         return hotelService.getTopHotels();
     }
 
+    @GetMapping ("/topHotels/page")
+    CursorPage<HotelDto> getTopHotelsPage(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return hotelService.getTopHotelsPage(cursor, size);
+    }
+
     @GetMapping ("/filterByCity")
     List<HotelDto> getTopHotels(@RequestParam String cityName) {
         return hotelService.getHotelsByCityName(cityName);
@@ -60,5 +79,11 @@ public class HotelController {
         return new ResponseEntity<>("Hotel created", HttpStatus.CREATED);
     }
 
+    @Secured("ROLE_ADMIN")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ImportReport importHotels(InputStream body) throws IOException {
+        return importService.importHotels(body);
+    }
+
 
 }
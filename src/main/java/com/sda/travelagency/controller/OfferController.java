@@ -1,15 +1,25 @@
 package com.sda.travelagency.controller;
 
+import com.sda.travelagency.dtos.CursorPage;
+import com.sda.travelagency.dtos.ImportReport;
 import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.dtos.OfferSearchCriteria;
+import com.sda.travelagency.dtos.ReservationStatus;
+import com.sda.travelagency.service.ImportService;
 import com.sda.travelagency.service.OfferService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/offers")
@@ -17,13 +27,28 @@ public class OfferController {
 
     private final OfferService offerService;
 
-    public OfferController(OfferService offerService) {
+    private final ImportService importService;
+
+    public OfferController(OfferService offerService, ImportService importService) {
         this.offerService = offerService;
+        this.importService = importService;
     }
 
     @GetMapping
-    List<OfferDto> getAllOffers() {
-        return offerService.getAllOffers();
+    List<OfferDto> getAllOffers(@RequestParam(defaultValue = "false") boolean availableOnly) {
+        return availableOnly ? offerService.getAvailableOffers() : offerService.getAllOffers();
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> exportOffers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(offerService::exportOffers);
+    }
+
+    @GetMapping("/page")
+    CursorPage<OfferDto> getOffersPage(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return offerService.getOffersPage(cursor, size);
     }
 
     @GetMapping("/{name}")
@@ -32,12 +57,23 @@ public class OfferController {
     }
 
     @GetMapping("/filterByPrice")
-    List<OfferDto> getOffersFilterByPrice(@RequestParam BigDecimal minPrice, @RequestParam BigDecimal maxPrice) {
-        return offerService.getOfferByPriceGreaterThanAndPriceLessThanOrderByPriceDesc(minPrice, maxPrice);
+    List<OfferDto> getOffersFilterByPrice(@RequestParam BigDecimal minPrice, @RequestParam BigDecimal maxPrice,
+                                          @RequestParam(defaultValue = "false") boolean availableOnly) {
+        return availableOnly
+                ? offerService.getAvailableOffersByPrice(minPrice, maxPrice)
+                : offerService.getOfferByPriceGreaterThanAndPriceLessThanOrderByPriceDesc(minPrice, maxPrice);
     }
     @GetMapping("/filterByHotel")
-    List<OfferDto> getOffersByHotel(@RequestParam String hotelName) {
-        return offerService.getOffersByHotelName(hotelName);
+    List<OfferDto> getOffersByHotel(@RequestParam String hotelName, @RequestParam(defaultValue = "false") boolean availableOnly) {
+        return availableOnly ? offerService.getAvailableOffersByHotelName(hotelName) : offerService.getOffersByHotelName(hotelName);
+    }
+    @GetMapping("/search")
+    CursorPage<OfferDto> searchOffers(@Valid OfferSearchCriteria criteria, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+        return offerService.searchOffers(criteria, cursor, size);
+    }
+    @GetMapping("/searchByHotel")
+    List<OfferDto> searchOffersByHotel(@RequestParam String phrase) {
+        return offerService.searchOffersByHotelName(phrase);
     }
 
     @Secured("ROLE_ADMIN")
@@ -47,6 +83,12 @@ public class OfferController {
         return new ResponseEntity<>("Offer created",HttpStatus.CREATED);
     }
 
+    @Secured("ROLE_ADMIN")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ImportReport importOffers(InputStream body) throws IOException {
+        return importService.importOffers(body);
+    }
+
     @Secured("ROLE_ADMIN")
     @DeleteMapping("/{offerName}")
     ResponseEntity<String> deleteOffer(@PathVariable String offerName) {
@@ -67,4 +109,10 @@ public class OfferController {
         offerService.reserveOffer(offerName);
         return new ResponseEntity<>("Accepted", HttpStatus.ACCEPTED);
     }
+
+    @Secured("ROLE_USER")
+    @PutMapping("/reserve")
+    ResponseEntity<Map<String, ReservationStatus>> reserveOffers(@RequestBody List<String> offerNames) {
+        return new ResponseEntity<>(offerService.reserveOffers(offerNames), HttpStatus.ACCEPTED);
+    }
 }
@@ -0,0 +1,52 @@
+package com.sda.travelagency.controller;
+
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.service.ReactiveCatalogService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lists are served only as application/x-ndjson or text/event-stream, which Spring MVC writes element by element as Flux emits them.
+ * For application/json Spring MVC would collect the whole Flux into a List before writing it, so such requests are rejected with 406.
+ **/
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveCatalogController {
+
+    private final ReactiveCatalogService reactiveCatalogService;
+
+    public ReactiveCatalogController(ReactiveCatalogService reactiveCatalogService) {
+        this.reactiveCatalogService = reactiveCatalogService;
+    }
+
+    @GetMapping(value = "/offers", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    Flux<OfferDto> getAllOffers() {
+        return reactiveCatalogService.getAllOffers();
+    }
+
+    @GetMapping("/offers/{name}")
+    Mono<OfferDto> getOffer(@PathVariable String name) {
+        return reactiveCatalogService.getOffer(name);
+    }
+
+    @GetMapping(value = "/hotels", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    Flux<HotelDto> getAllHotels() {
+        return reactiveCatalogService.getAllHotels();
+    }
+
+    @GetMapping(value = "/hotels/topHotels", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    Flux<HotelDto> getTopHotels() {
+        return reactiveCatalogService.getTopHotels();
+    }
+
+    @GetMapping("/hotels/{name}")
+    Mono<HotelDto> getHotel(@PathVariable String name) {
+        return reactiveCatalogService.getHotel(name);
+    }
+}
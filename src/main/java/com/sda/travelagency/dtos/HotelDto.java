@@ -2,10 +2,12 @@ package com.sda.travelagency.dtos;
 
 import com.sda.travelagency.annotation.JsonElement;
 import com.sda.travelagency.annotation.JsonSerializable;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
+import java.math.BigDecimal;
 import java.util.Objects;
 @JsonSerializable
 public class HotelDto {
@@ -18,9 +20,10 @@ public class HotelDto {
     @JsonElement
     @Min(0)
     @Max(10)
-    private Float rating;
+    @Digits(integer = 2, fraction = 1)
+    private BigDecimal rating;
 
-    public HotelDto(String name, Float rating, String cityName) {
+    public HotelDto(String name, BigDecimal rating, String cityName) {
         this.name = name;
         this.rating = rating;
         this.cityName = cityName;
@@ -45,11 +48,11 @@ public class HotelDto {
         this.cityName = cityName;
     }
 
-    public Float getRating() {
+    public BigDecimal getRating() {
         return rating;
     }
 
-    public void setRating(Float rating) {
+    public void setRating(BigDecimal rating) {
         this.rating = rating;
     }
 
@@ -5,6 +5,7 @@ import com.sda.travelagency.annotation.JsonSerializable;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -26,6 +27,7 @@ public class OfferDto {
     @NotBlank(message = "Continent name is mandatory")
     private String continentName;
     @JsonElement
+    @NotNull(message = "Price is mandatory")
     @DecimalMax("99999.99")
     @DecimalMin("0.00")
     private BigDecimal price;
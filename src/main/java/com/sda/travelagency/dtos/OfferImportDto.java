@@ -0,0 +1,58 @@
+package com.sda.travelagency.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of offers import. City, country and continent are derived from the hotel, so they are not required,
+ * and are ignored when rows exported as OfferDto are imported back.
+ **/
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OfferImportDto {
+    @NotBlank(message = "Offer name is mandatory")
+    private String name;
+    @NotBlank(message = "Hotel name is mandatory")
+    private String hotelName;
+    @NotNull(message = "Price is mandatory")
+    @DecimalMax("99999.99")
+    @DecimalMin("0.00")
+    private BigDecimal price;
+
+    public OfferImportDto(String name, String hotelName, BigDecimal price) {
+        this.name = name;
+        this.hotelName = hotelName;
+        this.price = price;
+    }
+
+    public OfferImportDto() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setHotelName(String hotelName) {
+        this.hotelName = hotelName;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+}
@@ -0,0 +1,112 @@
+package com.sda.travelagency.dtos;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+
+public class OfferSearchCriteria {
+    @DecimalMin("0.00")
+    private BigDecimal minPrice;
+    @DecimalMin("0.00")
+    private BigDecimal maxPrice;
+    private String hotelName;
+    private String cityName;
+    private String countryName;
+    private String continentName;
+    @Min(0)
+    @Max(10)
+    private BigDecimal minRating;
+    private boolean availableOnly;
+    private SortBy sortBy = SortBy.PRICE;
+    private Sort.Direction direction = Sort.Direction.ASC;
+
+    public enum SortBy {
+        PRICE, NAME, RATING
+    }
+
+    public OfferSearchCriteria() {
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(BigDecimal minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(BigDecimal maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    public void setHotelName(String hotelName) {
+        this.hotelName = hotelName;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public void setCityName(String cityName) {
+        this.cityName = cityName;
+    }
+
+    public String getCountryName() {
+        return countryName;
+    }
+
+    public void setCountryName(String countryName) {
+        this.countryName = countryName;
+    }
+
+    public String getContinentName() {
+        return continentName;
+    }
+
+    public void setContinentName(String continentName) {
+        this.continentName = continentName;
+    }
+
+    public BigDecimal getMinRating() {
+        return minRating;
+    }
+
+    public void setMinRating(BigDecimal minRating) {
+        this.minRating = minRating;
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    public void setAvailableOnly(boolean availableOnly) {
+        this.availableOnly = availableOnly;
+    }
+
+    public SortBy getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(SortBy sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public void setDirection(Sort.Direction direction) {
+        this.direction = direction;
+    }
+}
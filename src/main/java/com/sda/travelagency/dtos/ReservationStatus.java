@@ -0,0 +1,8 @@
+package com.sda.travelagency.dtos;
+
+public enum ReservationStatus {
+    RESERVED,
+    AVAILABLE,
+    TAKEN,
+    NOT_FOUND
+}
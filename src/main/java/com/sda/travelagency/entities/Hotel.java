@@ -2,6 +2,7 @@ package com.sda.travelagency.entities;
 
 import jakarta.persistence.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
@@ -13,16 +14,17 @@ public class Hotel {
 
     private String name;
 
-    private Float rating;
+    @Column(precision = 3, scale = 1)
+    private BigDecimal rating;
 
     @ManyToOne
     @JoinColumn(name = "city_id")
     private City city;
 
-    @OneToMany (mappedBy = "hotel", cascade = CascadeType.DETACH, fetch = FetchType.EAGER)
+    @OneToMany (mappedBy = "hotel", cascade = CascadeType.DETACH, fetch = FetchType.LAZY)
     private List<Offer> offers;
 
-    public Hotel(String name, Float rating, City city) {
+    public Hotel(String name, BigDecimal rating, City city) {
         this.name = name;
         this.rating = rating;
         this.city = city;
@@ -47,7 +49,7 @@ public class Hotel {
         return offers;
     }
 
-    public Float getRating() {
+    public BigDecimal getRating() {
         return rating;
     }
 
@@ -67,7 +69,7 @@ public class Hotel {
         this.offers = offers;
     }
 
-    public void setRating(Float rating) {
+    public void setRating(BigDecimal rating) {
         this.rating = rating;
     }
 }
@@ -12,6 +12,7 @@ public class Offer {
     private Integer id;
     private String name;
 
+    @Column(nullable = false)
     private BigDecimal price;
 
     private String userName;
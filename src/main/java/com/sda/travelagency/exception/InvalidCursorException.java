@@ -0,0 +1,11 @@
+package com.sda.travelagency.exception;
+
+public class InvalidCursorException extends RuntimeException{
+    /**
+     * Exception which is thrown when continuation token passed by client can not be decoded
+     * @param message
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package com.sda.travelagency.exception;
+
+import com.sda.travelagency.dtos.ReservationStatus;
+
+import java.util.Map;
+
+public class OffersNotReservedException extends RuntimeException{
+
+    private final Map<String, ReservationStatus> outcomes;
+
+    /**
+     * Exception which is thrown when user wants to reserve a basket of Offer objects and at least one of them is already taken or does not exist.
+     * None of the offers is reserved then, outcomes tell the reason for every offer.
+     * @param message
+     * @param outcomes
+     */
+    public OffersNotReservedException(String message, Map<String, ReservationStatus> outcomes) {
+        super(message);
+        this.outcomes = outcomes;
+    }
+
+    public Map<String, ReservationStatus> getOutcomes() {
+        return outcomes;
+    }
+}
@@ -0,0 +1,11 @@
+package com.sda.travelagency.exception;
+
+public class PasswordAuthenticationRequiredException extends RuntimeException{
+    /**
+     * Exception which is thrown when user authenticated with token instead of password tries to change or delete the account
+     * @param message
+     */
+    public PasswordAuthenticationRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.sda.travelagency.exception;
+
+public class TokenNotIssuedException extends RuntimeException{
+    /**
+     * Exception which is thrown when user asks for token and token authentication is disabled or user is authenticated with token instead of password
+     * @param message
+     */
+    public TokenNotIssuedException(String message) {
+        super(message);
+    }
+}
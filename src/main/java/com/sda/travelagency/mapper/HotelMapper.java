@@ -4,6 +4,7 @@ import com.sda.travelagency.dtos.HotelDto;
 import com.sda.travelagency.entities.Hotel;
 import com.sda.travelagency.exception.CityNotFoundException;
 import com.sda.travelagency.repository.CityRepository;
+import com.sda.travelagency.service.GeographyDictionary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,14 +12,18 @@ public class HotelMapper {
 
     private final CityRepository cityRepository;
 
-    public HotelMapper(CityRepository cityRepository) {
+    private final GeographyDictionary geographyDictionary;
+
+    public HotelMapper(CityRepository cityRepository, GeographyDictionary geographyDictionary) {
         this.cityRepository = cityRepository;
+        this.geographyDictionary = geographyDictionary;
     }
 
     /**
      * This method takes as a param HotelDto object.
      * It is using empty constructor to initialize Hotel object and sets it required fields with data from HotelDto object
-     * To set City object it uses cityName from HotelDto to find it in CityRepository
+     * To set City object it resolves cityName from HotelDto to its id in GeographyDictionary
+     * and attaches a reference obtained from CityRepository, so the city is not loaded.
      * @param hotelDto
      * @return Hotel
      * @throws CityNotFoundException "No such city exists"
@@ -27,7 +32,8 @@ public class HotelMapper {
         Hotel mappedHotel = new Hotel();
         mappedHotel.setName(hotelDto.getName());
         mappedHotel.setRating(hotelDto.getRating());
-        mappedHotel.setCity(cityRepository.findByName(hotelDto.getCityName()).orElseThrow(() -> new CityNotFoundException("No such city exists")));
+        mappedHotel.setCity(cityRepository.getReferenceById(geographyDictionary.cityId(hotelDto.getCityName())
+                .orElseThrow(() -> new CityNotFoundException("No such city exists"))));
         return mappedHotel;
     }
     /**
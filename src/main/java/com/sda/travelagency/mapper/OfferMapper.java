@@ -4,6 +4,7 @@ import com.sda.travelagency.dtos.OfferDto;
 import com.sda.travelagency.entities.Offer;
 import com.sda.travelagency.exception.HotelNotFoundException;
 import com.sda.travelagency.repository.HotelRepository;
+import com.sda.travelagency.service.GeographyDictionary;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,14 +12,18 @@ public class OfferMapper {
 
     private final HotelRepository hotelRepository;
 
-    public OfferMapper(HotelRepository hotelRepository) {
+    private final GeographyDictionary geographyDictionary;
+
+    public OfferMapper(HotelRepository hotelRepository, GeographyDictionary geographyDictionary) {
         this.hotelRepository = hotelRepository;
+        this.geographyDictionary = geographyDictionary;
     }
 
     /**
      * This method takes as a param HotelDto object.
      * It is using empty constructor to initialize Offer object and sets it required fields with data from OfferDto object
-     * To set Hotel object it uses hotelName from OfferDto to find it in HotelRepository
+     * To set Hotel object it resolves hotelName from OfferDto to its id in GeographyDictionary
+     * and attaches a reference obtained from HotelRepository, so the hotel and its offers are not loaded.
      * @param offerDto
      * @return Offer
      * @throws HotelNotFoundException "No such hotel exists"
@@ -26,7 +31,8 @@ public class OfferMapper {
     public Offer offerDtoToOffer(OfferDto offerDto) {
         Offer mappedOffer = new Offer();
         mappedOffer.setName(offerDto.getName());
-        mappedOffer.setHotel(hotelRepository.findByName(offerDto.getHotelName()).orElseThrow(() -> new HotelNotFoundException("No such hotel exists")));
+        mappedOffer.setHotel(hotelRepository.getReferenceById(geographyDictionary.hotelId(offerDto.getHotelName())
+                .orElseThrow(() -> new HotelNotFoundException("No such hotel exists"))));
         mappedOffer.setPrice(offerDto.getPrice());
         return mappedOffer;
     }
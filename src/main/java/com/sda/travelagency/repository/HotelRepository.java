@@ -1,9 +1,14 @@
 package com.sda.travelagency.repository;
 
+import com.sda.travelagency.dtos.HotelDto;
 import com.sda.travelagency.entities.Hotel;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +17,44 @@ public interface HotelRepository extends JpaRepository<Hotel, Integer> {
 
     Optional<Hotel> findByName(String name);
 
+    @EntityGraph(attributePaths = {"offers"})
+    Optional<Hotel> findWithOffersByName(String name);
+
     List<Hotel> findByCityName(String cityName);
 
+    @Query(value = "SELECT id FROM hotel WHERE MATCH(name) AGAINST (:phrase IN BOOLEAN MODE)", nativeQuery = true)
+    List<Integer> findIdsByNameMatching(String phrase);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.HotelDto(h.name, h.rating, c.name) FROM Hotel h JOIN h.city c")
+    List<HotelDto> findAllHotelDtos();
+
+    @Query(value = "Select new com.sda.travelagency.dtos.HotelDto(h.name, h.rating, c.name) FROM Hotel h JOIN h.city c ORDER BY h.rating DESC, h.id DESC")
+    List<HotelDto> findTopHotelDtos();
+
+    @Query(value = "Select new com.sda.travelagency.dtos.HotelDto(h.name, h.rating, c.name) FROM Hotel h JOIN h.city c WHERE h.name = :name")
+    Optional<HotelDto> findHotelDtoByName(String name);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.HotelDto(h.name, h.rating, c.name) FROM Hotel h JOIN h.city c WHERE c.name = :cityName")
+    List<HotelDto> findHotelDtosByCityName(String cityName);
+
+    @EntityGraph(attributePaths = {"city"})
+    @Query(value = "Select h FROM Hotel h ORDER BY h.id")
+    List<Hotel> findFirstPageById(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"city"})
+    @Query(value = "Select h FROM Hotel h WHERE h.id > :id ORDER BY h.id")
+    List<Hotel> findNextPageById(Integer id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"city"})
+    @Query(value = "Select h FROM Hotel h ORDER BY h.rating DESC, h.id DESC")
+    List<Hotel> findFirstPageByRating(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"city"})
+    @Query(value = "Select h FROM Hotel h WHERE h.rating < :rating OR (h.rating = :rating AND h.id < :id) OR h.rating IS NULL ORDER BY h.rating DESC, h.id DESC")
+    List<Hotel> findNextPageByRating(BigDecimal rating, Integer id, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"city"})
+    @Query(value = "Select h FROM Hotel h WHERE h.rating IS NULL AND h.id < :id ORDER BY h.id DESC")
+    List<Hotel> findNextUnratedPage(Integer id, Pageable pageable);
+
 }
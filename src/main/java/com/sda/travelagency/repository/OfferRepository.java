@@ -1,22 +1,100 @@
 package com.sda.travelagency.repository;
 
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.entities.Hotel;
 import com.sda.travelagency.entities.Offer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface OfferRepository extends JpaRepository<Offer, Integer> {
+public interface OfferRepository extends JpaRepository<Offer, Integer>, OfferSearchRepository {
     Optional<Offer> findByName(String name);
 
-    @Query(value = "Select o FROM Offer o WHERE o.hotel.name LiKE %:hotelName% ")
-    List<Offer> findOffersByHotel(String hotelName);
+    boolean existsByName(String name);
 
-    List<Offer> findByPriceGreaterThanAndPriceLessThanOrderByPriceDesc(BigDecimal minPrice, BigDecimal maxPrice);
+    boolean existsByHotel(Hotel hotel);
 
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE Offer o SET o.userName = :userName WHERE o.name = :offerName AND o.userName IS NULL")
+    int reserveByName(String offerName, String userName);
 
+    @Query(value = "SELECT name AS name, user_name AS userName FROM offer WHERE name IN (:offerNames) FOR UPDATE", nativeQuery = true)
+    List<ReservationState> lockByNames(Collection<String> offerNames);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE Offer o SET o.userName = :userName WHERE o.name IN :offerNames AND o.userName IS NULL")
+    int reserveAllByNames(Collection<String> offerNames, String userName);
+
+    @Query(value = "Select o.name FROM Offer o WHERE o.userName IS NOT NULL")
+    Set<String> findReservedNames();
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct")
+    List<OfferDto> findAllOfferDtos();
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct WHERE o.userName IS NULL")
+    List<OfferDto> findAvailableOfferDtos();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct ORDER BY o.id")
+    Stream<OfferDto> streamAllOfferDtos();
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct WHERE o.name = :name")
+    Optional<OfferDto> findOfferDtoByName(String name);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct LEFT JOIN h.offers o WHERE h.name = :hotelName")
+    List<OfferDto> findOfferDtosByHotelName(String hotelName);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct LEFT JOIN h.offers o ON o.userName IS NULL WHERE h.name = :hotelName")
+    List<OfferDto> findAvailableOfferDtosByHotelName(String hotelName);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct WHERE h.id IN :hotelIds")
+    List<OfferDto> findOfferDtosByHotelIds(Collection<Integer> hotelIds);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct " +
+            "WHERE o.price > :minPrice AND o.price < :maxPrice ORDER BY o.price DESC")
+    List<OfferDto> findOfferDtosByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+
+    @Query(value = "Select new com.sda.travelagency.dtos.OfferDto(o.name, h.name, c.name, co.name, ct.name, o.price) " +
+            "FROM Offer o JOIN o.hotel h JOIN h.city c JOIN c.country co JOIN co.continent ct " +
+            "WHERE o.userName IS NULL AND o.price > :minPrice AND o.price < :maxPrice ORDER BY o.price DESC")
+    List<OfferDto> findAvailableOfferDtosByPriceRange(BigDecimal minPrice, BigDecimal maxPrice);
+
+    @EntityGraph(attributePaths = {"hotel", "hotel.city", "hotel.city.country", "hotel.city.country.continent"})
+    @Query(value = "Select o FROM Offer o ORDER BY o.price, o.id")
+    List<Offer> findFirstPageByPrice(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"hotel", "hotel.city", "hotel.city.country", "hotel.city.country.continent"})
+    @Query(value = "Select o FROM Offer o WHERE o.price > :price OR (o.price = :price AND o.id > :id) ORDER BY o.price, o.id")
+    List<Offer> findNextPageByPrice(BigDecimal price, Integer id, Pageable pageable);
+
+    interface ReservationState {
+        String getName();
+
+        String getUserName();
+    }
 }
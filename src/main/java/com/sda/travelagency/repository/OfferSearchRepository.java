@@ -0,0 +1,20 @@
+package com.sda.travelagency.repository;
+
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.dtos.OfferSearchCriteria;
+
+import java.util.List;
+
+public interface OfferSearchRepository {
+
+    List<SearchRow> searchOfferDtos(OfferSearchCriteria criteria, SearchKey after, int limit);
+
+    /**
+     * Position of a row in search results: value of the column results are sorted by and offer id.
+     */
+    record SearchKey(Comparable<?> sortKey, Integer id) {
+    }
+
+    record SearchRow(OfferDto offer, SearchKey key) {
+    }
+}
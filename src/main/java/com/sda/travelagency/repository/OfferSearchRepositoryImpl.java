@@ -0,0 +1,115 @@
+package com.sda.travelagency.repository;
+
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.dtos.OfferSearchCriteria;
+import com.sda.travelagency.entities.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OfferSearchRepositoryImpl implements OfferSearchRepository {
+
+    /**
+     * Sort key of hotels without rating, lower than any rating, so they can be compared in seek predicate.
+     */
+    public static final BigDecimal UNRATED = BigDecimal.valueOf(-1);
+
+    private final EntityManager entityManager;
+
+    public OfferSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * This method compiles given criteria into a single Criteria API query selecting OfferDto projection.
+     * Only criteria which are set become predicates, each of them matches an indexed column:
+     * price range (IDX_offer_price_id), exact hotel, city, country and continent names (their name indexes),
+     * minimal hotel rating (IDX_hotel_rating_id) and availability, which is user_name IS NULL (IDX_offer_user_name_price_id).
+     * Rows are sorted by chosen column and offer id, so pages are stable. Hotels without rating are sorted as UNRATED
+     * and offers without name as an empty name, price is mandatory, so no sort key is null and every row is reached by seeking.
+     * Price and rating are exact decimals, so both the seek predicate and minimal rating compare exactly the stored values.
+     * Following page is found with a seek predicate past the key of the last row of previous page, instead of an offset,
+     * so deep pages are as fast as the first one and rows inserted meanwhile do not shift pages.
+     * @param criteria
+     * @param after key of the last row of previous page, null for the first page
+     * @param limit
+     * @return List of SearchRow
+     **/
+    @Override
+    public List<SearchRow> searchOfferDtos(OfferSearchCriteria criteria, SearchKey after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Offer> offer = query.from(Offer.class);
+        Join<Offer, Hotel> hotel = offer.join("hotel");
+        Join<Hotel, City> city = hotel.join("city");
+        Join<City, Country> country = city.join("country");
+        Join<Country, Continent> continent = country.join("continent");
+        Path<Integer> id = offer.get("id");
+        Expression<? extends Comparable<?>> sortKey = switch (criteria.getSortBy()) {
+            case PRICE -> offer.<BigDecimal>get("price");
+            case NAME -> cb.coalesce(offer.<String>get("name"), "");
+            case RATING -> cb.coalesce(hotel.<BigDecimal>get("rating"), UNRATED);
+        };
+        query.multiselect(offer.get("name"), hotel.get("name"), city.get("name"), country.get("name"), continent.get("name"),
+                offer.get("price"), sortKey, id);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(offer.<BigDecimal>get("price"), criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(offer.<BigDecimal>get("price"), criteria.getMaxPrice()));
+        }
+        if (criteria.getHotelName() != null) {
+            predicates.add(cb.equal(hotel.get("name"), criteria.getHotelName()));
+        }
+        if (criteria.getCityName() != null) {
+            predicates.add(cb.equal(city.get("name"), criteria.getCityName()));
+        }
+        if (criteria.getCountryName() != null) {
+            predicates.add(cb.equal(country.get("name"), criteria.getCountryName()));
+        }
+        if (criteria.getContinentName() != null) {
+            predicates.add(cb.equal(continent.get("name"), criteria.getContinentName()));
+        }
+        if (criteria.getMinRating() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(hotel.<BigDecimal>get("rating"), criteria.getMinRating()));
+        }
+        if (criteria.isAvailableOnly()) {
+            predicates.add(cb.isNull(offer.get("userName")));
+        }
+        boolean ascending = criteria.getDirection() == Sort.Direction.ASC;
+        if (after != null) {
+            predicates.add(seek(cb, sortKey, after, id, ascending));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(ascending ? cb.asc(sortKey) : cb.desc(sortKey), ascending ? cb.asc(id) : cb.desc(id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> new SearchRow(
+                        new OfferDto(tuple.get(0, String.class), tuple.get(1, String.class), tuple.get(2, String.class),
+                                tuple.get(3, String.class), tuple.get(4, String.class), tuple.get(5, BigDecimal.class)),
+                        new SearchKey((Comparable<?>) tuple.get(6), tuple.get(7, Integer.class))))
+                .toList();
+    }
+
+    /**
+     * (sortKey > :key) OR (sortKey = :key AND id > :id), with both comparisons reversed for descending order.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder cb, Expression<? extends Comparable<?>> sortKey, SearchKey after, Path<Integer> id, boolean ascending) {
+        Expression key = sortKey;
+        Comparable value = after.sortKey();
+        Predicate pastKey = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        Predicate pastId = ascending ? cb.greaterThan(id, after.id()) : cb.lessThan(id, after.id());
+        return cb.or(pastKey, cb.and(cb.equal(key, value), pastId));
+    }
+}
@@ -0,0 +1,121 @@
+package com.sda.travelagency.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short lived cache of loaded UserDetails and HMACs of verified passwords.
+ * Every eviction is stamped with a sequence number, so authentication which started before the eviction cannot cache old credentials again.
+ * Evictions are local to this instance. When several instances run, other instances keep stale entries at most for
+ * travelagency.security.auth-cache.ttl, which bounds how long changed or deleted credentials can still be accepted there.
+ **/
+@Component
+public class AuthenticationCache implements UserCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, UserDetails> users;
+
+    private final Cache<String, byte[]> verifiedCredentials;
+
+    private final Cache<String, Long> evictions;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final SecretKey key;
+
+    public AuthenticationCache(@Value("${travelagency.security.auth-cache.ttl:60s}") Duration ttl,
+                               @Value("${travelagency.security.auth-cache.maximum-size:10000}") long maximumSize) throws GeneralSecurityException {
+        this.users = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+        this.verifiedCredentials = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+        this.evictions = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+        this.key = KeyGenerator.getInstance(HMAC_ALGORITHM).generateKey();
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return users.getIfPresent(username);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.put(user.getUsername(), user);
+    }
+
+    /**
+     * This method removes both cached UserDetails and verified credentials of given user,
+     * so the next request of this user is authenticated against UserDetailsManager again.
+     * @param username
+     * @return void
+     **/
+    @Override
+    public void removeUserFromCache(String username) {
+        evictions.asMap().compute(username, (user, evicted) -> {
+            users.invalidate(user);
+            verifiedCredentials.invalidate(user);
+            return sequence.incrementAndGet();
+        });
+    }
+
+    /**
+     * This method returns current eviction sequence number, which has to be taken before credentials are loaded and verified.
+     * @return long
+     **/
+    public long stamp() {
+        return sequence.get();
+    }
+
+    /**
+     * This method checks if given password was successfully verified for given user within cache ttl.
+     * Passwords are never stored, only their HMAC with a key generated on startup.
+     * @param username
+     * @param password
+     * @return boolean
+     **/
+    public boolean isVerified(String username, String password) {
+        byte[] verified = verifiedCredentials.getIfPresent(username);
+        return verified != null && MessageDigest.isEqual(verified, digest(password));
+    }
+
+    /**
+     * This method remembers given UserDetails and that given password was successfully verified for this user.
+     * Nothing is cached if the user was evicted after given stamp was taken, for example because the password was changed meanwhile.
+     * @param user
+     * @param password
+     * @param stamp sequence number taken by stamp() before the password was verified
+     * @return void
+     **/
+    public void putVerified(UserDetails user, String password, long stamp) {
+        byte[] digest = digest(password);
+        evictions.asMap().compute(user.getUsername(), (username, evicted) -> {
+            if (evicted == null || evicted <= stamp) {
+                users.put(username, user);
+                verifiedCredentials.put(username, digest);
+            }
+            return evicted;
+        });
+    }
+
+    private byte[] digest(String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
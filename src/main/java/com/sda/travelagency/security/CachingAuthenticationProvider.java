@@ -0,0 +1,66 @@
+package com.sda.travelagency.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final AuthenticationCache authenticationCache;
+
+    private final UserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache authenticationCache) {
+        this.delegate = delegate;
+        this.authenticationCache = authenticationCache;
+    }
+
+    /**
+     * This method authenticates username and password from HTTP Basic header.
+     * If the same password was verified for this user within cache ttl, cached UserDetails are used and BCrypt comparison is skipped.
+     * Account status (locked, disabled, expired account or credentials) of cached UserDetails is checked on every request, as delegate does,
+     * and user rejected by these checks is evicted from AuthenticationCache, so the next request loads current account from database.
+     * Otherwise authentication is delegated and loaded UserDetails with successfully verified password are remembered in AuthenticationCache,
+     * unless the user was evicted while delegate was verifying the password.
+     * @param authentication
+     * @return Authentication
+     * @throws AuthenticationException if delegate rejects credentials
+     * @throws org.springframework.security.authentication.AccountStatusException if cached account is locked, disabled or expired
+     **/
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials != null) {
+            UserDetails user = authenticationCache.getUserFromCache(username);
+            if (user != null && authenticationCache.isVerified(username, credentials.toString())) {
+                try {
+                    accountStatusChecker.check(user);
+                } catch (AuthenticationException e) {
+                    authenticationCache.removeUserFromCache(username);
+                    throw e;
+                }
+                UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+                result.setDetails(authentication.getDetails());
+                return result;
+            }
+        }
+        long stamp = authenticationCache.stamp();
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && credentials != null && result.getPrincipal() instanceof UserDetails user) {
+            authenticationCache.putVerified(user, credentials.toString(), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,121 @@
+package com.sda.travelagency.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public class TokenService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String SEPARATOR = "|";
+
+    private final SecretKeySpec key;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final Cache<String, Long> revocations;
+
+    public TokenService(byte[] secret, Duration ttl, Clock clock) {
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+        this.revocations = Caffeine.newBuilder().expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * This method issues short-lived token for given authentication.
+     * Token carries issue and expiry time, authorities and username, signed with HMAC, so it can be verified without database access.
+     * @param authentication
+     * @return token
+     **/
+    public String issue(Authentication authentication) {
+        long issuedAt = clock.millis();
+        long expiresAt = issuedAt + ttl.toMillis();
+        String authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        String payload = issuedAt + SEPARATOR + expiresAt + SEPARATOR + authorities + SEPARATOR + authentication.getName();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + encoder.encodeToString(sign(payload));
+    }
+
+    /**
+     * This method verifies signature and expiry time of given token and checks that tokens of its user were not revoked after it was issued.
+     * If token is valid it returns authentication of its user with authorities carried by the token.
+     * @param token
+     * @return Optional of Authentication, empty if token is malformed, forged, expired or revoked
+     **/
+    public Optional<Authentication> verify(String token) {
+        try {
+            int dot = token.indexOf('.');
+            if (dot < 0) {
+                return Optional.empty();
+            }
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            String payload = new String(decoder.decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(sign(payload), decoder.decode(token.substring(dot + 1)))) {
+                return Optional.empty();
+            }
+            String[] parts = payload.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || Long.parseLong(parts[1]) < clock.millis()) {
+                return Optional.empty();
+            }
+            Long revokedAt = revocations.getIfPresent(parts[3]);
+            if (revokedAt != null && Long.parseLong(parts[0]) <= revokedAt) {
+                return Optional.empty();
+            }
+            PreAuthenticatedAuthenticationToken authentication = new PreAuthenticatedAuthenticationToken(
+                    parts[3], null, AuthorityUtils.commaSeparatedStringToAuthorityList(parts[2]));
+            return Optional.of(authentication);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This method revokes all tokens of given user issued until now, e.g. after password change or account deletion.
+     * Revocation is remembered for token ttl, after which all revoked tokens are expired anyway.
+     * Revocation is kept only in memory of this instance. Other instances sharing the same secret still accept revoked tokens
+     * until they expire, so with more than one instance token ttl is the upper bound of how long a revoked token stays valid.
+     * @param username
+     * @return void
+     **/
+    public void revoke(String username) {
+        revocations.put(username, clock.millis());
+    }
+
+    /**
+     * This method checks if given authentication was created from a token, not from user password.
+     * @param authentication
+     * @return boolean
+     **/
+    public static boolean isTokenAuthentication(Authentication authentication) {
+        return authentication instanceof PreAuthenticatedAuthenticationToken;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
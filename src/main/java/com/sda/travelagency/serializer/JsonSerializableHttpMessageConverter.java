@@ -0,0 +1,96 @@
+package com.sda.travelagency.serializer;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes @JsonSerializable objects and collections of them with JsonSerializableWriter into a pooled reusable JsonOutput.
+ * Buffers are pooled instead of kept per thread, so they are still reused when every request runs on a new virtual thread.
+ * Reading and all other types are left to Jackson.
+ **/
+public class JsonSerializableHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final int MAX_POOLED_OUTPUTS = 64;
+
+    private final JsonSerializableWriter writer;
+
+    private final BlockingQueue<JsonOutput> outputs = new ArrayBlockingQueue<>(MAX_POOLED_OUTPUTS);
+
+    public JsonSerializableHttpMessageConverter(JsonSerializableWriter writer) {
+        super(MediaType.APPLICATION_JSON);
+        this.writer = writer;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return writer.supports(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (writer.supports(clazz)) {
+            return true;
+        }
+        return Collection.class.isAssignableFrom(clazz)
+                && type instanceof ParameterizedType parameterizedType
+                && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementClass
+                && writer.supports(elementClass);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        JsonOutput output = outputs.poll();
+        if (output == null) {
+            output = new JsonOutput(INITIAL_CAPACITY);
+        }
+        output.reset();
+        try {
+            if (object instanceof Collection<?> collection) {
+                writer.writeAll(collection, output);
+            } else {
+                writer.write(object, output);
+            }
+            outputMessage.getHeaders().setContentLength(output.size());
+            output.writeTo(outputMessage.getBody());
+        } finally {
+            if (output.capacity() <= MAX_RETAINED_CAPACITY) {
+                outputs.offer(output);
+            }
+        }
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading is not supported", inputMessage);
+    }
+}
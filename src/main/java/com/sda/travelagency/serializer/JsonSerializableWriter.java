@@ -0,0 +1,171 @@
+package com.sda.travelagency.serializer;
+
+import com.sda.travelagency.annotation.JsonElement;
+import com.sda.travelagency.annotation.JsonSerializable;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes classes annotated with @JsonSerializable as JSON objects made of their @JsonElement fields.
+ * Annotations are read once, when the writer is created: for every field a getter method handle and a value writer chosen by field type
+ * are prepared together with pre-encoded field name, so writing a value does not use reflection nor allocate intermediate objects.
+ **/
+public class JsonSerializableWriter {
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<Class<?>, FieldWriter[]> writers = new HashMap<>();
+
+    public JsonSerializableWriter(Collection<Class<?>> types) {
+        types.forEach(this::register);
+    }
+
+    /**
+     * This method creates writer for all classes annotated with @JsonSerializable found in given package.
+     * @param basePackage
+     * @return JsonSerializableWriter
+     **/
+    public static JsonSerializableWriter forPackage(String basePackage) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(JsonSerializable.class));
+        List<Class<?>> types = new ArrayList<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+            types.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), JsonSerializableWriter.class.getClassLoader()));
+        }
+        return new JsonSerializableWriter(types);
+    }
+
+    public boolean supports(Class<?> type) {
+        return writers.containsKey(type);
+    }
+
+    /**
+     * This method writes given object as JSON object into JsonOutput.
+     * @param value instance of supported class or null
+     * @param output
+     * @return void
+     **/
+    public void write(Object value, JsonOutput output) {
+        if (value == null) {
+            output.writeBytes(NULL);
+            return;
+        }
+        FieldWriter[] fieldWriters = writers.get(value.getClass());
+        if (fieldWriters == null) {
+            throw new IllegalArgumentException(value.getClass().getName() + " is not annotated with @JsonSerializable");
+        }
+        if (fieldWriters.length == 0) {
+            output.writeAscii("{}");
+            return;
+        }
+        for (FieldWriter fieldWriter : fieldWriters) {
+            output.writeBytes(fieldWriter.prefix());
+            Object fieldValue;
+            try {
+                fieldValue = (Object) fieldWriter.getter().invokeExact(value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not read " + value.getClass().getName() + " field", e);
+            }
+            if (fieldValue == null) {
+                output.writeBytes(NULL);
+            } else {
+                fieldWriter.valueWriter().write(fieldValue, output);
+            }
+        }
+        output.writeByte((byte) '}');
+    }
+
+    /**
+     * This method writes given objects as JSON array into JsonOutput.
+     * @param values
+     * @param output
+     * @return void
+     **/
+    public void writeAll(Iterable<?> values, JsonOutput output) {
+        output.writeByte((byte) '[');
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                output.writeByte((byte) ',');
+            }
+            write(value, output);
+            first = false;
+        }
+        output.writeByte((byte) ']');
+    }
+
+    private void register(Class<?> type) {
+        if (writers.containsKey(type)) {
+            return;
+        }
+        writers.put(type, new FieldWriter[0]);
+        List<FieldWriter> fieldWriters = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (Field field : type.getDeclaredFields()) {
+            if (!field.isAnnotationPresent(JsonElement.class)) {
+                continue;
+            }
+            String prefix = (fieldWriters.isEmpty() ? "{" : ",") + "\"" + field.getName() + "\":";
+            fieldWriters.add(new FieldWriter(prefix.getBytes(StandardCharsets.UTF_8), getter(lookup, type, field), valueWriter(field.getType())));
+        }
+        writers.put(type, fieldWriters.toArray(new FieldWriter[0]));
+    }
+
+    private MethodHandle getter(MethodHandles.Lookup lookup, Class<?> type, Field field) {
+        String prefix = field.getType() == boolean.class ? "is" : "get";
+        try {
+            return lookup.findVirtual(type, prefix + StringUtils.capitalize(field.getName()), MethodType.methodType(field.getType()))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No public getter for @JsonElement field " + type.getName() + "." + field.getName(), e);
+        }
+    }
+
+    private ValueWriter valueWriter(Class<?> fieldType) {
+        Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(fieldType);
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return (value, output) -> output.writeString(value.toString());
+        }
+        if (type == Float.class || type == Double.class) {
+            return (value, output) -> {
+                double number = ((Number) value).doubleValue();
+                if (Double.isFinite(number)) {
+                    output.writeAscii(value.toString());
+                } else {
+                    output.writeString(value.toString());
+                }
+            };
+        }
+        if (type == BigDecimal.class || type == BigInteger.class || type == Integer.class || type == Long.class
+                || type == Short.class || type == Byte.class || type == Boolean.class) {
+            return (value, output) -> output.writeAscii(value.toString());
+        }
+        if (type.isEnum()) {
+            return (value, output) -> output.writeString(((Enum<?>) value).name());
+        }
+        if (type.isAnnotationPresent(JsonSerializable.class)) {
+            register(type);
+            return this::write;
+        }
+        throw new IllegalStateException("Unsupported @JsonElement type " + fieldType.getName());
+    }
+
+    private interface ValueWriter {
+        void write(Object value, JsonOutput output);
+    }
+
+    private record FieldWriter(byte[] prefix, MethodHandle getter, ValueWriter valueWriter) {
+    }
+}
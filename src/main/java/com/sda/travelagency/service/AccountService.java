@@ -1,9 +1,18 @@
 package com.sda.travelagency.service;
 
+import com.sda.travelagency.configuration.MetricsConfig;
 import com.sda.travelagency.dtos.AccountDto;
+import com.sda.travelagency.exception.PasswordAuthenticationRequiredException;
 import com.sda.travelagency.exception.SessionExpiredException;
+import com.sda.travelagency.exception.TokenNotIssuedException;
 import com.sda.travelagency.exception.UserAlreadyExistsException;
+import com.sda.travelagency.security.AuthenticationCache;
+import com.sda.travelagency.security.TokenService;
 import com.sda.travelagency.util.Username;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -12,12 +21,19 @@ import org.springframework.security.provisioning.UserDetailsManager;
 import org.springframework.stereotype.Service;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_METRIC, histogram = true)
 public class AccountService {
 
     private final UserDetailsManager userDetailsManager;
 
-    public AccountService(UserDetailsManager userDetailsManager) {
+    private final AuthenticationCache authenticationCache;
+
+    private final ObjectProvider<TokenService> tokenService;
+
+    public AccountService(UserDetailsManager userDetailsManager, AuthenticationCache authenticationCache, ObjectProvider<TokenService> tokenService) {
         this.userDetailsManager = userDetailsManager;
+        this.authenticationCache = authenticationCache;
+        this.tokenService = tokenService;
     }
     /**
      * This method  takes AccountDto object as a param.
@@ -65,27 +81,72 @@ public class AccountService {
     }
     /**
      * This method is used to delete active account.
+     * Account can be deleted only with password authentication, if active user is authenticated with token it throws PasswordAuthenticationRequiredException.
+     * Cached credentials and issued tokens of this account are revoked, so they stop working immediately.
      * @return void
+     * @throws PasswordAuthenticationRequiredException "Password authentication is required"
      **/
     public void deleteUser(){
-        userDetailsManager.deleteUser(Username.getActive());
+        requirePasswordAuthentication();
+        String username = Username.getActive();
+        userDetailsManager.deleteUser(username);
+        revokeCredentials(username);
     }
     /**
      * This method takes new password as a param.
      * If present it gets active user username bu Username util class or else it throws SessionExpiredException
+     * Password can be changed only with password authentication, if active user is authenticated with token it throws PasswordAuthenticationRequiredException.
      * Instance of active user UserDetails object is loaded from UserDetailsManager,
      * New password is encoded by BCryptPasswordEncoder and changed.
+     * Cached credentials and issued tokens of active user are revoked, so old password and tokens stop working immediately.
      * @param password
      * @return void
      * @throws SessionExpiredException "Session expired"
+     * @throws PasswordAuthenticationRequiredException "Password authentication is required"
      **/
     public void changePassword(String password){
         String username = Username.getActive();
         if(username == null) {
             throw new SessionExpiredException("Session expired");
         }
+        requirePasswordAuthentication();
         UserDetails user = userDetailsManager.loadUserByUsername(username);
         String newPassword = new BCryptPasswordEncoder().encode(password);
         userDetailsManager.changePassword(user.getPassword(), newPassword);
+        revokeCredentials(username);
+    }
+    /**
+     * This method issues signed, short-lived token for active user, which can be sent in Authorization: Bearer header instead of password.
+     * Token carries user roles, so it works with the same @Secured endpoints.
+     * If token authentication is disabled or active user is authenticated with token instead of password, it throws TokenNotIssuedException.
+     * @return token
+     * @throws SessionExpiredException "Session expired"
+     * @throws TokenNotIssuedException "Token authentication is disabled"
+     * @throws TokenNotIssuedException "Token can be issued only for password authentication"
+     **/
+    public String login(){
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(Username.getActive() == null) {
+            throw new SessionExpiredException("Session expired");
+        }
+        TokenService service = tokenService.getIfAvailable();
+        if(service == null) {
+            throw new TokenNotIssuedException("Token authentication is disabled");
+        }
+        if(TokenService.isTokenAuthentication(authentication)) {
+            throw new TokenNotIssuedException("Token can be issued only for password authentication");
+        }
+        return service.issue(authentication);
+    }
+
+    private void requirePasswordAuthentication() {
+        if(TokenService.isTokenAuthentication(SecurityContextHolder.getContext().getAuthentication())) {
+            throw new PasswordAuthenticationRequiredException("Password authentication is required");
+        }
+    }
+
+    private void revokeCredentials(String username) {
+        authenticationCache.removeUserFromCache(username);
+        tokenService.ifAvailable(service -> service.revoke(username));
     }
 }
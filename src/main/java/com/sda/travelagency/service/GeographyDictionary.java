@@ -0,0 +1,166 @@
+package com.sda.travelagency.service;
+
+import com.sda.travelagency.util.AfterCommit;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable dictionary of continent, country, city and hotel names and their ids, loaded on startup.
+ * It is replaced as a whole (copy on write) on every change, so lookups never lock and never issue SQL for known names.
+ * A name which is missing, for example because it was inserted without the application, is read through from the database once.
+ * Read through result is cached only if the dictionary was not changed during the query, so it cannot bring back a removed hotel.
+ **/
+@Component
+@DependsOnDatabaseInitialization
+public class GeographyDictionary implements InitializingBean {
+
+    private static final String CONTINENT = "Continent";
+    private static final String COUNTRY = "Country";
+    private static final String CITY = "City";
+    private static final String HOTEL = "Hotel";
+
+    private final EntityManager entityManager;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Names names = new Names(Map.of(), Map.of(), Map.of(), Map.of());
+
+    private volatile long generation;
+
+    public GeographyDictionary(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        reload();
+    }
+
+    /**
+     * This method loads names and ids of all continents, countries, cities and hotels and replaces the dictionary at once.
+     * @return void
+     **/
+    public void reload() {
+        writeLock.lock();
+        try {
+            names = new Names(load(CONTINENT), load(COUNTRY), load(CITY), load(HOTEL));
+            generation++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public Optional<Integer> continentId(String continentName) {
+        return lookup(CONTINENT, continentName, Names::continents,
+                (current, continents) -> new Names(continents, current.countries(), current.cities(), current.hotels()));
+    }
+
+    public Optional<Integer> countryId(String countryName) {
+        return lookup(COUNTRY, countryName, Names::countries,
+                (current, countries) -> new Names(current.continents(), countries, current.cities(), current.hotels()));
+    }
+
+    public Optional<Integer> cityId(String cityName) {
+        return lookup(CITY, cityName, Names::cities,
+                (current, cities) -> new Names(current.continents(), current.countries(), cities, current.hotels()));
+    }
+
+    public Optional<Integer> hotelId(String hotelName) {
+        return lookup(HOTEL, hotelName, Names::hotels,
+                (current, hotels) -> new Names(current.continents(), current.countries(), current.cities(), hotels));
+    }
+
+    public void putHotel(String hotelName, Integer hotelId) {
+        AfterCommit.run(() -> updateHotels(hotels -> {
+            hotels.put(hotelName, hotelId);
+            return hotels;
+        }));
+    }
+
+    public void renameHotel(String hotelName, String newHotelName) {
+        AfterCommit.run(() -> updateHotels(hotels -> {
+            Integer hotelId = hotels.remove(hotelName);
+            if (hotelId != null) {
+                hotels.put(newHotelName, hotelId);
+            }
+            return hotels;
+        }));
+    }
+
+    public void removeHotel(String hotelName) {
+        AfterCommit.run(() -> updateHotels(hotels -> {
+            hotels.remove(hotelName);
+            return hotels;
+        }));
+    }
+
+    private void updateHotels(UnaryOperator<Map<String, Integer>> change) {
+        writeLock.lock();
+        try {
+            Names current = names;
+            Map<String, Integer> hotels = Map.copyOf(change.apply(new HashMap<>(current.hotels())));
+            names = new Names(current.continents(), current.countries(), current.cities(), hotels);
+            generation++;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Optional<Integer> lookup(String entity, String name, Function<Names, Map<String, Integer>> dictionary, NamesUpdate update) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        long lookupGeneration = generation;
+        Integer id = dictionary.apply(names).get(name);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        List<Integer> ids = entityManager.createQuery("Select e.id FROM " + entity + " e WHERE e.name = :name", Integer.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        writeLock.lock();
+        try {
+            if (generation != lookupGeneration) {
+                return Optional.of(ids.get(0));
+            }
+            Names current = names;
+            Map<String, Integer> added = new HashMap<>(dictionary.apply(current));
+            added.put(name, ids.get(0));
+            names = update.apply(current, Map.copyOf(added));
+        } finally {
+            writeLock.unlock();
+        }
+        return Optional.of(ids.get(0));
+    }
+
+    private Map<String, Integer> load(String entity) {
+        Map<String, Integer> ids = new HashMap<>();
+        entityManager.createQuery("Select e.name, e.id FROM " + entity + " e WHERE e.name IS NOT NULL", Object[].class)
+                .getResultList()
+                .forEach(row -> ids.putIfAbsent((String) row[0], (Integer) row[1]));
+        return Map.copyOf(ids);
+    }
+
+    @FunctionalInterface
+    private interface NamesUpdate {
+        Names apply(Names current, Map<String, Integer> dictionary);
+    }
+
+    private record Names(Map<String, Integer> continents, Map<String, Integer> countries,
+                         Map<String, Integer> cities, Map<String, Integer> hotels) {
+    }
+}
@@ -1,119 +1,224 @@
 package com.sda.travelagency.service;
 
+import com.sda.travelagency.configuration.CacheConfig;
+import com.sda.travelagency.configuration.MetricsConfig;
+import com.sda.travelagency.dtos.CursorPage;
 import com.sda.travelagency.dtos.HotelDto;
 import com.sda.travelagency.entities.Hotel;
 import com.sda.travelagency.exception.CityNotFoundException;
 import com.sda.travelagency.exception.HotelCantBeDeletedException;
 import com.sda.travelagency.exception.HotelNotFoundException;
+import com.sda.travelagency.exception.InvalidCursorException;
 import com.sda.travelagency.mapper.HotelMapper;
-import com.sda.travelagency.repository.CityRepository;
 import com.sda.travelagency.repository.HotelRepository;
-import org.springframework.data.domain.Sort;
+import com.sda.travelagency.repository.OfferRepository;
+import com.sda.travelagency.util.Cursor;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_METRIC, histogram = true)
 public class HotelService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final HotelRepository hotelRepository;
 
-    private final CityRepository cityRepository;
+    private final OfferRepository offerRepository;
 
     private final HotelMapper hotelMapper;
 
-    public HotelService(HotelRepository hotelRepository, CityRepository cityRepository, HotelMapper hotelMapper) {
+    private final ObjectProvider<OfferPriceIndex> offerPriceIndex;
+
+    private final GeographyDictionary geographyDictionary;
+
+    public HotelService(HotelRepository hotelRepository, OfferRepository offerRepository, HotelMapper hotelMapper,
+                        ObjectProvider<OfferPriceIndex> offerPriceIndex, GeographyDictionary geographyDictionary) {
         this.hotelRepository = hotelRepository;
-        this.cityRepository = cityRepository;
+        this.offerRepository = offerRepository;
         this.hotelMapper = hotelMapper;
+        this.offerPriceIndex = offerPriceIndex;
+        this.geographyDictionary = geographyDictionary;
     }
     /**
      * This method finds an hotels in the database.
-     * Then, it uses the HotelMapper class to transform instances of the Hotel objects into an HotelDto, which is added to List and passed on.
+     * HotelDto objects are selected directly by HotelRepository projection, without loading Hotel entities.
      * @return List of HotelDto
      **/
     public List<HotelDto> getAllHotels(){
-        return hotelRepository.findAll().stream()
-                .map(HotelMapper::hotelToHotelDto).collect(Collectors.toList());
+        return hotelRepository.findAllHotelDtos();
     }
     /**
      * This method gets an cityName as a param.
-     * Then, it uses the CityRepository class to find City object in database or else throws CityNotFoundException.
-     * Next, it finds Hotel objects associated with given cityName and uses the HotelMapper class to transform instances of the Hotel objects into HotelDto,
-     * which is added to List and passed on.
+     * Then, it checks in GeographyDictionary that the city exists or else throws CityNotFoundException.
+     * Next, it selects HotelDto objects associated with given cityName directly by HotelRepository projection.
      * @param cityName
      * @return List of HotelDto
      * @throws CityNotFoundException "No such hotel exists"
      **/
+    @Cacheable(CacheConfig.HOTELS_BY_CITY)
     public List<HotelDto> getHotelsByCityName(String cityName){
-        if(cityRepository.findByName(cityName).isEmpty()){
+        if(geographyDictionary.cityId(cityName).isEmpty()){
             throw new CityNotFoundException("No such city exists");
         }
-        return hotelRepository.findByCityName(cityName).stream()
-                .map(HotelMapper::hotelToHotelDto).collect(Collectors.toList());
+        return hotelRepository.findHotelDtosByCityName(cityName);
     }
     /**
-     * This method finds a Hotel object in the OfferRepository by its or else throws HotelNotFoundException.
-     * Then, it uses the HotelMapper class to transform an instance of the Hotel objects into HotelDto, which is passed on.
+     * This method selects HotelDto by hotel name directly by HotelRepository projection or else throws HotelNotFoundException.
      * @param hotelName
      * @return HotelDto
      * @throws HotelNotFoundException "No such hotel exists"
      **/
+    @Cacheable(CacheConfig.HOTEL)
     public HotelDto getHotel(String hotelName) {
-        return HotelMapper.hotelToHotelDto(hotelRepository.findByName(hotelName).orElseThrow(() -> new HotelNotFoundException("No such hotel exists")));
+        return hotelRepository.findHotelDtoByName(hotelName).orElseThrow(() -> new HotelNotFoundException("No such hotel exists"));
     }
 
     /**
      * This method gets an hotelName as a param.
      * Then, it uses the HotelRepository class to find Hotel object in database or else throws HotelNotFoundException.
      * It is not possible to delete Hotel object which has Offer objects associated to. In this case it throws HotelCantBeDeletedException.
-     * Next it is deleted from database.
+     * Associated offers are checked with a single existence query, they are not loaded.
+     * Next it is deleted from database and from GeographyDictionary.
      * @param hotelName
      * @return void
      * @throws HotelNotFoundException "No such hotel exists"
      * @throws HotelCantBeDeletedException "Hotel is associated with offers and cannot be deleted"
      **/
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.HOTEL, key = "#hotelName"),
+            @CacheEvict(cacheNames = CacheConfig.HOTELS_BY_CITY, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_HOTEL, key = "#hotelName")})
     public void deleteHotel(String hotelName) {
         Hotel hotelToDelete = hotelRepository.findByName(hotelName).orElseThrow(() -> new HotelNotFoundException("No such hotel exists"));
-        if (!hotelToDelete.getOffers().isEmpty()) {
+        if (offerRepository.existsByHotel(hotelToDelete)) {
             throw new HotelCantBeDeletedException("Hotel is associated with offers and cannot be deleted");
         }
         hotelRepository.delete(hotelToDelete);
+        geographyDictionary.removeHotel(hotelName);
     }
     /**
      * This method gets an hotelName and hotelDto as a param.
      * Then, it uses the HotelRepository class to find Hotel object in database or else throws HotelNotFoundException,
-     * If present it updates its name and save in database.
+     * If present it updates its name and save in database, GeographyDictionary is updated with the new name.
+     * Cached hotel and offers referring to the old hotel name are evicted and OfferPriceIndex, if enabled, is reloaded.
      * @param hotelName
      * @param hotelDto
      * @return void
      * @throws HotelNotFoundException "No such hotel exists"
      **/
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.HOTEL, key = "#hotelName"),
+            @CacheEvict(cacheNames = CacheConfig.HOTELS_BY_CITY, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFER, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_PRICE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_HOTEL, key = "#hotelName")})
     public void updateHotel(String hotelName, HotelDto hotelDto){
         Hotel hotelToUpdate = hotelRepository.findByName(hotelName).orElseThrow(() -> new HotelNotFoundException("No such hotel exists"));
         hotelToUpdate.setName(hotelDto.getName());
         hotelRepository.save(hotelToUpdate);
+        geographyDictionary.renameHotel(hotelName, hotelDto.getName());
+        offerPriceIndex.ifAvailable(OfferPriceIndex::reloadInBackground);
     }
 
     /**
      * This method gets an HotelDto as a param.
      * Then, it uses the HotelMapper class to transform an instance of the HotelDto object into an Hotel,
-     * which is saved in database by HotelRepository.
+     * which is saved in database by HotelRepository and added to GeographyDictionary.
      * @param hotelDto
      * @return void
+     * @throws CityNotFoundException "No such city exists"
      **/
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.HOTELS_BY_CITY, key = "#hotelDto.cityName")
     public void addHotel(HotelDto hotelDto) {
-        Hotel hotel = hotelMapper.hotelDtoToHotel(hotelDto);
-        hotelRepository.save(hotel);
+        Hotel hotel = hotelRepository.save(hotelMapper.hotelDtoToHotel(hotelDto));
+        geographyDictionary.putHotel(hotel.getName(), hotel.getId());
     }
 
     /**
-     * This method finds an hotels in the database sorted by rating desc.
-     * Then, it uses the HotelMapper class to transform instances of the Hotel objects into an HotelDto, which is added to List and passed on.
+     * This method finds an hotels in the database sorted by rating and id desc, hotels without rating are last.
+     * HotelDto objects are selected directly by HotelRepository projection, without loading Hotel entities.
      * @return List of HotelDto
      **/
     public List<HotelDto> getTopHotels() {
-        return hotelRepository.findAll(Sort.by(Sort.Direction.DESC, "rating")).stream()
-                .map(HotelMapper::hotelToHotelDto).collect(Collectors.toList());
+        return hotelRepository.findTopHotelDtos();
+    }
+
+    /**
+     * This method gets a continuation token and page size as a param.
+     * It finds next page of Hotel objects sorted by id, seeking directly past the last row of previous page.
+     * Without token the first page is returned.
+     * Then, it uses the HotelMapper class to transform instances of the Hotel objects into an HotelDto.
+     * @param cursor
+     * @param size
+     * @return CursorPage of HotelDto
+     * @throws InvalidCursorException "Invalid cursor"
+     **/
+    public CursorPage<HotelDto> getHotelsPage(String cursor, int size) {
+        PageRequest pageRequest = pageRequest(size);
+        List<Hotel> hotels;
+        if (cursor == null) {
+            hotels = hotelRepository.findFirstPageById(pageRequest);
+        } else {
+            try {
+                hotels = hotelRepository.findNextPageById(Integer.valueOf(Cursor.decode(cursor, 1)[0]), pageRequest);
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+        }
+        String nextCursor = null;
+        if (hotels.size() == pageRequest.getPageSize()) {
+            nextCursor = Cursor.encode(hotels.get(hotels.size() - 1).getId());
+        }
+        return new CursorPage<>(hotels.stream().map(HotelMapper::hotelToHotelDto).toList(), nextCursor);
+    }
+
+    /**
+     * This method gets a continuation token and page size as a param.
+     * It finds next page of Hotel objects sorted by rating and id desc, seeking directly past the last row of previous page.
+     * Hotels without rating are returned last, in the same order as getTopHotels, so paged and unpaged lists contain the same hotels.
+     * Rating is an exact decimal, so the rating of the last row in token matches its hotel exactly.
+     * Without token the first page is returned.
+     * Then, it uses the HotelMapper class to transform instances of the Hotel objects into an HotelDto.
+     * @param cursor
+     * @param size
+     * @return CursorPage of HotelDto
+     * @throws InvalidCursorException "Invalid cursor"
+     **/
+    public CursorPage<HotelDto> getTopHotelsPage(String cursor, int size) {
+        PageRequest pageRequest = pageRequest(size);
+        List<Hotel> hotels;
+        if (cursor == null) {
+            hotels = hotelRepository.findFirstPageByRating(pageRequest);
+        } else {
+            String[] values = Cursor.decode(cursor, 2);
+            try {
+                hotels = values[0].isEmpty()
+                        ? hotelRepository.findNextUnratedPage(Integer.valueOf(values[1]), pageRequest)
+                        : hotelRepository.findNextPageByRating(new BigDecimal(values[0]), Integer.valueOf(values[1]), pageRequest);
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+        }
+        String nextCursor = null;
+        if (hotels.size() == pageRequest.getPageSize()) {
+            Hotel last = hotels.get(hotels.size() - 1);
+            nextCursor = Cursor.encode(last.getRating() == null ? "" : last.getRating().toPlainString(), last.getId());
+        }
+        return new CursorPage<>(hotels.stream().map(HotelMapper::hotelToHotelDto).toList(), nextCursor);
+    }
+
+    private PageRequest pageRequest(int size) {
+        return PageRequest.ofSize(Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
     }
 }
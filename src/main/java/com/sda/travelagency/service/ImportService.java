@@ -0,0 +1,242 @@
+package com.sda.travelagency.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.travelagency.configuration.CacheConfig;
+import com.sda.travelagency.configuration.MetricsConfig;
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.ImportReport;
+import com.sda.travelagency.dtos.OfferImportDto;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Timed(value = MetricsConfig.SERVICE_METRIC, histogram = true)
+public class ImportService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String IMPORT_METRIC = "travelagency.import";
+    private static final String IMPORT_ROWS_METRIC = "travelagency.import.rows";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectProvider<OfferPriceIndex> offerPriceIndex;
+
+    private final GeographyDictionary geographyDictionary;
+
+    public ImportService(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                         Validator validator, MeterRegistry meterRegistry, ObjectProvider<OfferPriceIndex> offerPriceIndex,
+                         GeographyDictionary geographyDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+        this.offerPriceIndex = offerPriceIndex;
+        this.geographyDictionary = geographyDictionary;
+    }
+
+    /**
+     * This method gets newline delimited JSON stream of HotelDto objects as a param and imports them in batches of 1000 rows.
+     * For every batch it resolves city names and checks already taken hotel names with one query each,
+     * then inserts all valid rows with a single JDBC batch.
+     * Malformed, invalid or duplicated rows and rows with unknown city are reported with their line number and skipped.
+     * GeographyDictionary is reloaded with imported hotels.
+     * @param input
+     * @return ImportReport
+     **/
+    @CacheEvict(cacheNames = CacheConfig.HOTELS_BY_CITY, allEntries = true)
+    public ImportReport importHotels(InputStream input) throws IOException {
+        ImportReport report = importRows(input, HotelDto.class, "hotels", this::insertHotels);
+        if (report.getImported() > 0) {
+            geographyDictionary.reload();
+        }
+        return report;
+    }
+
+    /**
+     * This method gets newline delimited JSON stream of OfferImportDto objects as a param and imports them in batches of 1000 rows.
+     * Only name, hotel name and price are required, geography of the offer comes from its hotel.
+     * For every batch it resolves hotel names and checks already taken offer names with one query each,
+     * then inserts all valid rows with a single JDBC batch.
+     * Malformed, invalid or duplicated rows and rows with unknown hotel are reported with their line number and skipped.
+     * Cached offer lists are evicted and OfferPriceIndex, if enabled, is reloaded.
+     * @param input
+     * @return ImportReport
+     **/
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_PRICE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_HOTEL, allEntries = true)})
+    public ImportReport importOffers(InputStream input) throws IOException {
+        ImportReport report = importRows(input, OfferImportDto.class, "offers", this::insertOffers);
+        if (report.getImported() > 0) {
+            offerPriceIndex.ifAvailable(OfferPriceIndex::reloadInBackground);
+        }
+        return report;
+    }
+
+    private <T> ImportReport importRows(InputStream input, Class<T> type, String name, BatchWriter<T> batchWriter) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        List<Row<T>> batch = new ArrayList<>(BATCH_SIZE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            T value;
+            try {
+                value = objectMapper.readValue(line, type);
+            } catch (JsonProcessingException e) {
+                report.fail(lineNumber, "Malformed JSON");
+                continue;
+            }
+            Set<ConstraintViolation<T>> violations = validator.validate(value);
+            if (!violations.isEmpty()) {
+                report.fail(lineNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ", "Validation error: ", "")));
+                continue;
+            }
+            batch.add(new Row<>(lineNumber, value));
+            if (batch.size() == BATCH_SIZE) {
+                batchWriter.write(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batchWriter.write(batch, report);
+        }
+        long elapsed = System.nanoTime() - start;
+        report.setRowsPerSecond(report.getImported() * 1_000_000_000.0 / Math.max(elapsed, 1));
+        Timer.builder(IMPORT_METRIC).tag("type", name).register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+        Counter.builder(IMPORT_ROWS_METRIC).tag("type", name).tag("outcome", "imported").register(meterRegistry).increment(report.getImported());
+        Counter.builder(IMPORT_ROWS_METRIC).tag("type", name).tag("outcome", "failed").register(meterRegistry).increment(report.getFailed());
+        return report;
+    }
+
+    private void insertHotels(List<Row<HotelDto>> batch, ImportReport report) {
+        Map<String, Integer> cityIds = idsByName("SELECT id, name FROM city WHERE name IN (:names)",
+                batch.stream().map(row -> row.value().getCityName()));
+        Set<String> takenNames = takenNames("SELECT name FROM hotel WHERE name IN (:names)",
+                batch.stream().map(row -> row.value().getName()));
+        List<Row<SqlParameterSource>> inserts = new ArrayList<>();
+        for (Row<HotelDto> row : batch) {
+            HotelDto hotel = row.value();
+            Integer cityId = cityIds.get(hotel.getCityName());
+            if (cityId == null) {
+                report.fail(row.line(), "No such city exists");
+            } else if (!takenNames.add(hotel.getName())) {
+                report.fail(row.line(), "Name is already taken");
+            } else {
+                inserts.add(new Row<>(row.line(), new MapSqlParameterSource()
+                        .addValue("name", hotel.getName())
+                        .addValue("rating", hotel.getRating())
+                        .addValue("cityId", cityId)));
+            }
+        }
+        insert("INSERT INTO hotel (name, rating, city_id) VALUES (:name, :rating, :cityId)", inserts, report);
+    }
+
+    private void insertOffers(List<Row<OfferImportDto>> batch, ImportReport report) {
+        Map<String, Integer> hotelIds = idsByName("SELECT id, name FROM hotel WHERE name IN (:names)",
+                batch.stream().map(row -> row.value().getHotelName()));
+        Set<String> takenNames = takenNames("SELECT name FROM offer WHERE name IN (:names)",
+                batch.stream().map(row -> row.value().getName()));
+        List<Row<SqlParameterSource>> inserts = new ArrayList<>();
+        for (Row<OfferImportDto> row : batch) {
+            OfferImportDto offer = row.value();
+            Integer hotelId = hotelIds.get(offer.getHotelName());
+            if (hotelId == null) {
+                report.fail(row.line(), "No such hotel exists");
+            } else if (!takenNames.add(offer.getName())) {
+                report.fail(row.line(), "Name is already taken");
+            } else {
+                inserts.add(new Row<>(row.line(), new MapSqlParameterSource()
+                        .addValue("name", offer.getName())
+                        .addValue("price", offer.getPrice())
+                        .addValue("hotelId", hotelId)));
+            }
+        }
+        insert("INSERT INTO offer (name, price, hotel_id) VALUES (:name, :price, :hotelId)", inserts, report);
+    }
+
+    /**
+     * Rows are inserted with a single JDBC batch in one transaction. If the batch fails, for example because a name was taken
+     * by a concurrent insert, it is rolled back and rows are inserted one by one, so only the failing rows are reported.
+     **/
+    private void insert(String sql, List<Row<SqlParameterSource>> inserts, ImportReport report) {
+        if (inserts.isEmpty()) {
+            return;
+        }
+        SqlParameterSource[] parameters = inserts.stream().map(Row::value).toArray(SqlParameterSource[]::new);
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, parameters));
+            report.success(inserts.size());
+        } catch (DataAccessException batchException) {
+            for (Row<SqlParameterSource> row : inserts) {
+                try {
+                    jdbcTemplate.update(sql, row.value());
+                    report.success(1);
+                } catch (DataAccessException e) {
+                    report.fail(row.line(), "Name is already taken or still referenced");
+                }
+            }
+        }
+    }
+
+    private Map<String, Integer> idsByName(String sql, Stream<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        jdbcTemplate.query(sql, Map.of("names", names.collect(Collectors.toSet())),
+                (RowCallbackHandler) resultSet -> ids.put(resultSet.getString("name"), resultSet.getInt("id")));
+        return ids;
+    }
+
+    private Set<String> takenNames(String sql, Stream<String> names) {
+        return new HashSet<>(jdbcTemplate.queryForList(sql, Map.of("names", names.collect(Collectors.toSet())), String.class));
+    }
+
+    private record Row<T>(int line, T value) {
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        void write(List<Row<T>> batch, ImportReport report);
+    }
+}
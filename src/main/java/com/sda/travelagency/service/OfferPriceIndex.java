@@ -0,0 +1,369 @@
+package com.sda.travelagency.service;
+
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.repository.OfferRepository;
+import com.sda.travelagency.util.AfterCommit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of all offers sorted by price, used to answer price range queries without the database.
+ * Prices are kept as longs scaled by 100 in a primitive array, so a range is found by two binary searches.
+ * Index is replaced as a whole (copy on write) when offers are added, removed or renamed, readers never lock and always see a consistent snapshot.
+ * Reserved offer names are kept in a concurrent set next to the snapshot, so a reservation costs one set insert instead of a copy of the index.
+ * Offers without price can not be placed in the index and are left out of it.
+ * Until the first load finishes, or while it is reloaded, queries return an empty Optional and callers should ask the repository.
+ * Background load which fails is logged and retried with growing delay.
+ **/
+@Component
+@ConditionalOnProperty(name = "travelagency.offers.price-index.enabled", havingValue = "true")
+public class OfferPriceIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OfferPriceIndex.class);
+
+    private static final int PRICE_SCALE = 2;
+    private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final OfferRepository offerRepository;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Replaced by each load, changed only through update, so a change committed during a load is applied after loaded names.
+     */
+    private volatile Set<String> reservedNames = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Offers of current snapshot by name, the same instances as in the snapshot, guarded by writeLock.
+     */
+    private final Map<String, OfferDto> offersByName = new HashMap<>();
+
+    /**
+     * Changes committed while the index is loaded, applied to loaded snapshot before it is published, guarded by writeLock.
+     */
+    private List<Runnable> pendingChanges;
+
+    private long loadGeneration;
+
+    public OfferPriceIndex(OfferRepository offerRepository) {
+        this.offerRepository = offerRepository;
+    }
+
+    /**
+     * This method loads the index in background once the application is started, so startup is not delayed by it.
+     * If the load fails, it is logged and retried with delay doubled after every failure, until it succeeds or another load is started.
+     * @return void
+     **/
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread warmUp = new Thread(this::loadWithRetry, "offer-price-index-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    /**
+     * This method is used when offers change in a way which can not be applied to the index, for example when their hotel is renamed.
+     * The current index is dropped immediately, so stale offers are never returned, and it is loaded again in background.
+     * @return void
+     **/
+    public void reloadInBackground() {
+        AfterCommit.run(() -> {
+            writeLock.lock();
+            try {
+                snapshot = null;
+            } finally {
+                writeLock.unlock();
+            }
+            warmUp();
+        });
+    }
+
+    /**
+     * This method rebuilds the index from the database with OfferRepository projections.
+     * The index is not ready while it is loaded. Changes committed during the load are queued and applied to the loaded index before it is published,
+     * so no change is lost and the load is never repeated. All changes are idempotent, so a change already seen by the load can be applied again.
+     * If another load is started in the meantime, this one is discarded.
+     * @return void
+     **/
+    public void reload() {
+        load(startLoad());
+    }
+
+    private void loadWithRetry() {
+        Duration delay = INITIAL_RETRY_DELAY;
+        while (true) {
+            long loading = startLoad();
+            try {
+                load(loading);
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Offer price index could not be loaded, retrying in {}", delay, e);
+            }
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            writeLock.lock();
+            try {
+                if (loadGeneration != loading) {
+                    return;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            delay = delay.multipliedBy(2);
+            if (delay.compareTo(MAX_RETRY_DELAY) > 0) {
+                delay = MAX_RETRY_DELAY;
+            }
+        }
+    }
+
+    private long startLoad() {
+        writeLock.lock();
+        try {
+            snapshot = null;
+            offersByName.clear();
+            pendingChanges = new ArrayList<>();
+            return ++loadGeneration;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void load(long loading) {
+        List<OfferDto> offers;
+        Set<String> reserved;
+        try {
+            offers = offerRepository.findAllOfferDtos().stream().filter(offer -> offer.getPrice() != null).toList();
+            reserved = offerRepository.findReservedNames();
+        } catch (RuntimeException e) {
+            writeLock.lock();
+            try {
+                if (loadGeneration == loading) {
+                    pendingChanges = null;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+        writeLock.lock();
+        try {
+            if (loadGeneration != loading) {
+                return;
+            }
+            Set<String> loadedReservedNames = ConcurrentHashMap.newKeySet();
+            loadedReservedNames.addAll(reserved);
+            reservedNames = loadedReservedNames;
+            offers.forEach(offer -> offersByName.put(offer.getName(), offer));
+            snapshot = Snapshot.of(offers);
+            pendingChanges.forEach(Runnable::run);
+            pendingChanges = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method gets a range of prices as a param, both bounds are exclusive.
+     * It finds the range with two binary searches in O(log n) and copies k matching offers sorted by price desc.
+     * If the index is not loaded yet, it returns an empty Optional.
+     * @param minPrice
+     * @param maxPrice
+     * @return Optional of List of OfferDto
+     **/
+    public Optional<List<OfferDto>> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        return findByPriceRange(minPrice, maxPrice, false);
+    }
+
+    /**
+     * This method works like findByPriceRange, but if availableOnly is set it skips offers which are reserved.
+     * @param minPrice
+     * @param maxPrice
+     * @param availableOnly
+     * @return Optional of List of OfferDto
+     **/
+    public Optional<List<OfferDto>> findByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, boolean availableOnly) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        int from = current.firstAbove(scale(minPrice, RoundingMode.FLOOR));
+        int to = current.firstAtLeast(scale(maxPrice, RoundingMode.CEILING));
+        List<OfferDto> offers = new ArrayList<>(Math.max(to - from, 0));
+        Set<String> reserved = reservedNames;
+        for (int i = to - 1; i >= from; i--) {
+            if (!availableOnly || !reserved.contains(current.offers[i].getName())) {
+                offers.add(current.offers[i]);
+            }
+        }
+        return Optional.of(offers);
+    }
+
+    public void add(OfferDto offer) {
+        AfterCommit.run(() -> update(() -> {
+            removeFromSnapshot(offer.getName());
+            if (offer.getPrice() != null) {
+                snapshot = snapshot.with(offer);
+                offersByName.put(offer.getName(), offer);
+            }
+        }));
+    }
+
+    public void remove(String offerName) {
+        AfterCommit.run(() -> update(() -> {
+            reservedNames.remove(offerName);
+            removeFromSnapshot(offerName);
+        }));
+    }
+
+    public void rename(String offerName, String newOfferName) {
+        AfterCommit.run(() -> update(() -> {
+            if (reservedNames.remove(offerName)) {
+                reservedNames.add(newOfferName);
+            }
+            OfferDto offer = offersByName.get(offerName);
+            if (offer == null) {
+                return;
+            }
+            OfferDto renamed = new OfferDto(newOfferName, offer.getHotelName(), offer.getCityName(),
+                    offer.getCountryName(), offer.getContinentName(), offer.getPrice());
+            snapshot = snapshot.replaced(offer, renamed);
+            offersByName.remove(offerName);
+            offersByName.put(newOfferName, renamed);
+        }));
+    }
+
+    public void markReserved(Collection<String> offerNames) {
+        AfterCommit.run(() -> update(() -> reservedNames.addAll(offerNames)));
+    }
+
+    private void removeFromSnapshot(String offerName) {
+        OfferDto offer = offersByName.remove(offerName);
+        if (offer != null) {
+            snapshot = snapshot.without(offer);
+        }
+    }
+
+    private void update(Runnable change) {
+        writeLock.lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            } else if (snapshot != null) {
+                change.run();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static long scale(BigDecimal price, RoundingMode roundingMode) {
+        BigDecimal scaled = price.setScale(PRICE_SCALE, roundingMode).movePointRight(PRICE_SCALE);
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (scaled.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return scaled.longValueExact();
+    }
+
+    private record Snapshot(long[] prices, OfferDto[] offers) {
+
+        static Snapshot of(List<OfferDto> offers) {
+            OfferDto[] sorted = offers.toArray(OfferDto[]::new);
+            Arrays.sort(sorted, Comparator.comparing(OfferDto::getPrice));
+            long[] prices = new long[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                prices[i] = scale(sorted[i].getPrice(), RoundingMode.HALF_UP);
+            }
+            return new Snapshot(prices, sorted);
+        }
+
+        int firstAbove(long price) {
+            return price == Long.MAX_VALUE ? prices.length : firstAtLeast(price + 1);
+        }
+
+        int firstAtLeast(long price) {
+            int low = 0;
+            int high = prices.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (prices[middle] < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Finds position of given offer instance by binary search of its price, then scans only offers with the same price.
+         */
+        int positionOf(OfferDto offer) {
+            long price = scale(offer.getPrice(), RoundingMode.HALF_UP);
+            for (int i = firstAtLeast(price), end = firstAbove(price); i < end; i++) {
+                if (offers[i] == offer) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        Snapshot with(OfferDto offer) {
+            long price = scale(offer.getPrice(), RoundingMode.HALF_UP);
+            int position = firstAbove(price);
+            long[] newPrices = new long[prices.length + 1];
+            OfferDto[] newOffers = new OfferDto[offers.length + 1];
+            System.arraycopy(prices, 0, newPrices, 0, position);
+            System.arraycopy(offers, 0, newOffers, 0, position);
+            newPrices[position] = price;
+            newOffers[position] = offer;
+            System.arraycopy(prices, position, newPrices, position + 1, prices.length - position);
+            System.arraycopy(offers, position, newOffers, position + 1, offers.length - position);
+            return new Snapshot(newPrices, newOffers);
+        }
+
+        Snapshot without(OfferDto offer) {
+            int position = positionOf(offer);
+            if (position < 0) {
+                return this;
+            }
+            long[] newPrices = new long[prices.length - 1];
+            OfferDto[] newOffers = new OfferDto[offers.length - 1];
+            System.arraycopy(prices, 0, newPrices, 0, position);
+            System.arraycopy(offers, 0, newOffers, 0, position);
+            System.arraycopy(prices, position + 1, newPrices, position, prices.length - position - 1);
+            System.arraycopy(offers, position + 1, newOffers, position, offers.length - position - 1);
+            return new Snapshot(newPrices, newOffers);
+        }
+
+        Snapshot replaced(OfferDto offer, OfferDto replacement) {
+            int position = positionOf(offer);
+            if (position < 0) {
+                return this;
+            }
+            OfferDto[] newOffers = offers.clone();
+            newOffers[position] = replacement;
+            return new Snapshot(prices, newOffers);
+        }
+    }
+}
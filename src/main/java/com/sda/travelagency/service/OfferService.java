@@ -1,67 +1,214 @@
 package com.sda.travelagency.service;
 
+import com.sda.travelagency.configuration.CacheConfig;
+import com.sda.travelagency.configuration.MetricsConfig;
+import com.sda.travelagency.dtos.CursorPage;
 import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.dtos.OfferSearchCriteria;
+import com.sda.travelagency.dtos.ReservationStatus;
 import com.sda.travelagency.entities.Offer;
 import com.sda.travelagency.exception.HotelNotFoundException;
+import com.sda.travelagency.exception.InvalidCursorException;
 import com.sda.travelagency.exception.OfferNotAvailableException;
 import com.sda.travelagency.exception.OfferNotFoundException;
+import com.sda.travelagency.exception.OffersNotReservedException;
 import com.sda.travelagency.exception.SessionExpiredException;
 import com.sda.travelagency.mapper.OfferMapper;
 import com.sda.travelagency.repository.HotelRepository;
 import com.sda.travelagency.repository.OfferRepository;
+import com.sda.travelagency.repository.OfferSearchRepository;
+import com.sda.travelagency.serializer.JsonOutput;
+import com.sda.travelagency.serializer.JsonSerializableWriter;
+import com.sda.travelagency.util.Cursor;
 import com.sda.travelagency.util.Username;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_METRIC, histogram = true)
 public class OfferService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_FLUSH_BYTES = 64 * 1024;
+
     private final OfferMapper offerMapper;
     private final OfferRepository offerRepository;
 
     private final HotelRepository hotelRepository;
 
-    public OfferService(OfferMapper offerMapper, OfferRepository offerRepository, HotelRepository hotelRepository) {
+    private final JsonSerializableWriter jsonSerializableWriter;
+
+    private final ObjectProvider<OfferPriceIndex> offerPriceIndex;
+
+    public OfferService(OfferMapper offerMapper, OfferRepository offerRepository, HotelRepository hotelRepository,
+                        JsonSerializableWriter jsonSerializableWriter, ObjectProvider<OfferPriceIndex> offerPriceIndex) {
         this.offerMapper = offerMapper;
         this.offerRepository = offerRepository;
         this.hotelRepository = hotelRepository;
+        this.jsonSerializableWriter = jsonSerializableWriter;
+        this.offerPriceIndex = offerPriceIndex;
     }
 
     /**
      * This method finds an offers in the database.
-     * Then, it uses the OfferMapper class to transform instances of the Offer objects into an OfferDto, which is added to List and passed on.
+     * OfferDto objects are selected directly by OfferRepository projection, without loading Offer entities.
      * @return List of OfferDto
      **/
     public List<OfferDto> getAllOffers() {
-        return offerRepository.findAll().stream()
-                .map(OfferMapper::offerToOfferDto)
-                .collect(Collectors.toList());
+        return offerRepository.findAllOfferDtos();
     }
 
     /**
-     * This method finds an Offer object in the OfferRepository by its or else throws OfferNotFoundException.
-     * Then, it uses the OfferMapper class to transform an instance of the Offer objects into an OfferDto, which is passed on.
+     * This method finds offers which are not reserved yet.
+     * Reserved offers are excluded by the OfferRepository projection in the database, so they are never loaded nor sent.
+     * @return List of OfferDto
+     **/
+    public List<OfferDto> getAvailableOffers() {
+        return offerRepository.findAvailableOfferDtos();
+    }
+
+    /**
+     * This method writes all offers into given OutputStream as newline delimited JSON, one OfferDto per line.
+     * OfferDto objects are streamed by OfferRepository projection from a forward-only result set fetched 1000 rows at a time,
+     * and written in chunks, so memory used does not depend on number of offers.
+     * MySQL driver fetches rows in batches only with useCursorFetch=true in datasource url, otherwise it reads the whole result set.
+     * No Offer entities are loaded, so persistence context stays empty during export.
+     * @param outputStream
+     * @return void
+     **/
+    @Transactional(readOnly = true)
+    public void exportOffers(OutputStream outputStream) throws IOException {
+        JsonOutput output = new JsonOutput(EXPORT_FLUSH_BYTES * 2);
+        try (Stream<OfferDto> offers = offerRepository.streamAllOfferDtos()) {
+            Iterator<OfferDto> iterator = offers.iterator();
+            while (iterator.hasNext()) {
+                jsonSerializableWriter.write(iterator.next(), output);
+                output.writeByte((byte) '\n');
+                if (output.size() >= EXPORT_FLUSH_BYTES) {
+                    output.writeTo(outputStream);
+                    outputStream.flush();
+                    output.reset();
+                }
+            }
+        }
+        output.writeTo(outputStream);
+        outputStream.flush();
+    }
+
+    /**
+     * This method gets a continuation token and page size as a param.
+     * It finds next page of Offer objects sorted by price and id, seeking directly past the last row of previous page,
+     * so every page costs the same regardless of its depth. Without token the first page is returned.
+     * Price is mandatory, so the seek reaches every offer.
+     * Then, it uses the OfferMapper class to transform instances of the Offer objects into an OfferDto.
+     * Token for the following page is present only if the page is full.
+     * @param cursor
+     * @param size
+     * @return CursorPage of OfferDto
+     * @throws InvalidCursorException "Invalid cursor"
+     **/
+    public CursorPage<OfferDto> getOffersPage(String cursor, int size) {
+        PageRequest pageRequest = PageRequest.ofSize(Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        List<Offer> offers;
+        if (cursor == null) {
+            offers = offerRepository.findFirstPageByPrice(pageRequest);
+        } else {
+            String[] values = Cursor.decode(cursor, 2);
+            try {
+                offers = offerRepository.findNextPageByPrice(new BigDecimal(values[0]), Integer.valueOf(values[1]), pageRequest);
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+        }
+        String nextCursor = null;
+        if (offers.size() == pageRequest.getPageSize()) {
+            Offer last = offers.get(offers.size() - 1);
+            nextCursor = Cursor.encode(last.getPrice().toPlainString(), last.getId());
+        }
+        return new CursorPage<>(offers.stream().map(OfferMapper::offerToOfferDto).toList(), nextCursor);
+    }
+
+    /**
+     * This method gets search criteria, a continuation token and page size as a param.
+     * Any combination of criteria is compiled by OfferRepository into a single query selecting OfferDto projection
+     * sorted by chosen column, so clients do not need to combine results of several filter endpoints.
+     * Token holds sort column, sort key and id of the last row, the following page is found by seeking past them.
+     * It is present only if the page is full. Token created for different sort column is rejected.
+     * Decimal sort keys are written in plain notation, so they are parsed back to exactly the same value.
+     * @param criteria
+     * @param cursor
+     * @param size
+     * @return CursorPage of OfferDto
+     * @throws InvalidCursorException "Invalid cursor"
+     **/
+    public CursorPage<OfferDto> searchOffers(OfferSearchCriteria criteria, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        OfferSearchRepository.SearchKey after = null;
+        if (cursor != null) {
+            String[] values = Cursor.decode(cursor, 3);
+            if (!values[0].equals(criteria.getSortBy().name())) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            try {
+                Comparable<?> sortKey = switch (criteria.getSortBy()) {
+                    case PRICE -> new BigDecimal(values[2]);
+                    case NAME -> values[2];
+                    case RATING -> new BigDecimal(values[2]);
+                };
+                after = new OfferSearchRepository.SearchKey(sortKey, Integer.valueOf(values[1]));
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+        }
+        List<OfferSearchRepository.SearchRow> rows = offerRepository.searchOfferDtos(criteria, after, pageSize);
+        String nextCursor = null;
+        if (rows.size() == pageSize) {
+            OfferSearchRepository.SearchKey last = rows.get(rows.size() - 1).key();
+            Object sortKey = last.sortKey() instanceof BigDecimal decimal ? decimal.toPlainString() : last.sortKey();
+            nextCursor = Cursor.encode(criteria.getSortBy().name(), last.id(), sortKey);
+        }
+        return new CursorPage<>(rows.stream().map(OfferSearchRepository.SearchRow::offer).toList(), nextCursor);
+    }
+
+    /**
+     * This method selects OfferDto by offer name directly by OfferRepository projection or else throws OfferNotFoundException.
      * @param offerName
      * @return OfferDto
      * @throws OfferNotFoundException "No such offer exists"
      **/
+    @Cacheable(CacheConfig.OFFER)
     public OfferDto getOffer(String offerName){
-        return OfferMapper.offerToOfferDto(offerRepository.findByName(offerName).orElseThrow(() -> new OfferNotFoundException("No such offer exists")));
+        return offerRepository.findOfferDtoByName(offerName).orElseThrow(() -> new OfferNotFoundException("No such offer exists"));
     }
 
     /**
      * This method gets an offerDto as a param.
      * Then, it uses the OfferMapper class to transform an instance of the OfferDto object into an Offer,
      * which is saved in database by OfferRepository.
+     * If OfferPriceIndex is enabled, the offer is read back as stored in database and added to it.
      * @param offerDto
      * @return void
      **/
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_PRICE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_HOTEL, key = "#offerDto.hotelName")})
+    @Transactional
     public void addOffer(OfferDto offerDto) {
         Offer offer = offerMapper.offerDtoToOffer(offerDto);
         offerRepository.save(offer);
+        offerPriceIndex.ifAvailable(index -> offerRepository.findOfferDtoByName(offer.getName()).ifPresent(index::add));
     }
 
     /**
@@ -72,9 +219,14 @@ public class OfferService {
      * @return void
      * @throws OfferNotFoundException "No such offer exists"
      **/
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.OFFER, key = "#offerName"),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_PRICE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_HOTEL, allEntries = true)})
     public void deleteOffer(String offerName){
         Offer offerToDelete = offerRepository.findByName(offerName).orElseThrow(() -> new OfferNotFoundException("No such offer exists"));
         offerRepository.delete(offerToDelete);
+        offerPriceIndex.ifAvailable(index -> index.remove(offerName));
     }
     /**
      * This method gets an offerName and offerDto as a param.
@@ -85,15 +237,21 @@ public class OfferService {
      * @return void
      * @throws OfferNotFoundException "No such offer exists"
      **/
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.OFFER, key = "#offerName"),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_PRICE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.OFFERS_BY_HOTEL, allEntries = true)})
     public void updateOffer(String offerName, OfferDto offerDto){
         Offer offerToUpdate = offerRepository.findByName(offerName).orElseThrow(() -> new OfferNotFoundException("No such offer exists"));
         offerToUpdate.setName(offerDto.getName());
         offerRepository.save(offerToUpdate);
+        offerPriceIndex.ifAvailable(index -> index.rename(offerName, offerDto.getName()));
     }
     /**
      * This method gets an offerName as a param.
-     * Then, it uses the OfferRepository class to find Offer object in database or else throws OfferNotFoundException,
-     * If present it changes username parameter in Offer object from null to active user and save it in database.
+     * It reserves Offer object for active user with a single conditional update, which succeeds only if the offer is not taken yet,
+     * so concurrent reservations of the same offer are resolved by the database and exactly one of them wins.
+     * If nothing was updated, it checks whether the offer exists to tell OfferNotFoundException from OfferNotAvailableException.
      * @param offerName
      * @return void
      * @throws OfferNotFoundException "No such offer exists"
@@ -101,50 +259,154 @@ public class OfferService {
      * @throws OfferNotAvailableException "Offer is already taken"
      **/
     public void reserveOffer(String offerName) {
-        Offer offerByName = offerRepository.findByName(offerName).orElseThrow(() -> new OfferNotFoundException("No such offer exists"));
         String username = Username.getActive();
         if(username == null) {
             throw new SessionExpiredException("Session expired");
         }
-        if(offerByName.getUserName() != null) {
+        if(offerRepository.reserveByName(offerName, username) == 0) {
+            if(!offerRepository.existsByName(offerName)) {
+                throw new OfferNotFoundException("No such offer exists");
+            }
             throw new OfferNotAvailableException("Offer is already taken");
         }
-        offerByName.setUserName(username);
-        offerRepository.save(offerByName);
+        offerPriceIndex.ifAvailable(index -> index.markReserved(List.of(offerName)));
+    }
+
+    /**
+     * This method gets a list of offer names as a param and reserves all of them for active user or none of them.
+     * In a single transaction it locks offer rows with given names, so no other reservation can interfere,
+     * and decides outcome for every offer. If all of them are available, they are reserved with a single update.
+     * Otherwise nothing is reserved and it throws OffersNotReservedException with outcome for every offer.
+     * @param offerNames
+     * @return Map of offer name and its ReservationStatus
+     * @throws SessionExpiredException "Session expired"
+     * @throws OffersNotReservedException "Offers could not be reserved"
+     **/
+    @Transactional
+    public Map<String, ReservationStatus> reserveOffers(List<String> offerNames) {
+        String username = Username.getActive();
+        if(username == null) {
+            throw new SessionExpiredException("Session expired");
+        }
+        Set<String> uniqueOfferNames = new LinkedHashSet<>(offerNames);
+        if(uniqueOfferNames.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> reservedBy = new HashMap<>();
+        offerRepository.lockByNames(uniqueOfferNames)
+                .forEach(state -> reservedBy.put(state.getName(), state.getUserName()));
+
+        Map<String, ReservationStatus> outcomes = new LinkedHashMap<>();
+        boolean allAvailable = true;
+        for (String offerName : uniqueOfferNames) {
+            if(!reservedBy.containsKey(offerName)) {
+                outcomes.put(offerName, ReservationStatus.NOT_FOUND);
+                allAvailable = false;
+            } else if(reservedBy.get(offerName) != null) {
+                outcomes.put(offerName, ReservationStatus.TAKEN);
+                allAvailable = false;
+            } else {
+                outcomes.put(offerName, ReservationStatus.AVAILABLE);
+            }
+        }
+        if(!allAvailable) {
+            throw new OffersNotReservedException("Offers could not be reserved", outcomes);
+        }
+        offerRepository.reserveAllByNames(uniqueOfferNames, username);
+        offerPriceIndex.ifAvailable(index -> index.markReserved(uniqueOfferNames));
+        outcomes.replaceAll((offerName, status) -> ReservationStatus.RESERVED);
+        return outcomes;
     }
 
     /**
      * This method gets a range of prices as a param.
-     * Then, it uses the OfferRepository class to find Offer objects in database within price range.
-     * Next, it uses the OfferMapper class to transform instances of the Offer objects into an OfferDto,
-     * which is added to List and passed on.
+     * If OfferPriceIndex is enabled and loaded, OfferDto objects within price range sorted by price desc are found in it without the database.
+     * Otherwise, it uses the OfferRepository projection to select them.
      * @param minPrice
      * @param maxPrice
      * @return List of OfferDto
      **/
+    @Cacheable(CacheConfig.OFFERS_BY_PRICE)
     public List<OfferDto> getOfferByPriceGreaterThanAndPriceLessThanOrderByPriceDesc(BigDecimal minPrice, BigDecimal maxPrice){
-        return offerRepository.findByPriceGreaterThanAndPriceLessThanOrderByPriceDesc(minPrice, maxPrice)
-                .stream()
-                .map(OfferMapper::offerToOfferDto)
-                .toList();
+        OfferPriceIndex index = offerPriceIndex.getIfAvailable();
+        if(index != null) {
+            Optional<List<OfferDto>> offers = index.findByPriceRange(minPrice, maxPrice);
+            if(offers.isPresent()) {
+                return offers.get();
+            }
+        }
+        return offerRepository.findOfferDtosByPriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * This method gets a range of prices as a param and finds offers within it which are not reserved yet, sorted by price desc.
+     * If OfferPriceIndex is enabled and loaded, reserved offers are skipped in it, otherwise they are excluded by the OfferRepository projection.
+     * Result is not cached, because it changes with every reservation.
+     * @param minPrice
+     * @param maxPrice
+     * @return List of OfferDto
+     **/
+    public List<OfferDto> getAvailableOffersByPrice(BigDecimal minPrice, BigDecimal maxPrice){
+        OfferPriceIndex index = offerPriceIndex.getIfAvailable();
+        if(index != null) {
+            Optional<List<OfferDto>> offers = index.findByPriceRange(minPrice, maxPrice, true);
+            if(offers.isPresent()) {
+                return offers.get();
+            }
+        }
+        return offerRepository.findAvailableOfferDtosByPriceRange(minPrice, maxPrice);
     }
 
     /**
      * This method gets an hotelName as a param.
-     * Then, it uses the HotelRepository class to find Hotel object in database or else throws HotelNotFoundException.
-     * Next, it finds Offer objects associated with given hotelName and uses the OfferMapper class to transform instances of the Offer objects into an OfferDto,
-     * which is added to List and passed on.
+     * Then, it uses the OfferRepository class to select in a single query hotel with given exact name joined with its offers.
+     * If no row is found, hotel does not exist and it throws HotelNotFoundException.
+     * A hotel without offers is returned as a single row without offer name, which is filtered out.
      * @param hotelName
      * @return List of OfferDto
      * @throws HotelNotFoundException "No such hotel exists"
      **/
+    @Cacheable(CacheConfig.OFFERS_BY_HOTEL)
     public List<OfferDto> getOffersByHotelName(String hotelName){
-        if(hotelRepository.findByName(hotelName).isEmpty()){
+        List<OfferDto> offers = offerRepository.findOfferDtosByHotelName(hotelName);
+        if(offers.isEmpty()){
             throw new HotelNotFoundException("No such hotel exists");
         }
-        return offerRepository.findOffersByHotel(hotelName)
-                .stream()
-                .map(OfferMapper::offerToOfferDto)
+        return offers.stream()
+                .filter(offer -> offer.getName() != null)
                 .toList();
     }
+
+    /**
+     * This method gets an hotelName as a param and works like getOffersByHotelName,
+     * but only offers which are not reserved yet are joined with the hotel. Result is not cached.
+     * @param hotelName
+     * @return List of OfferDto
+     * @throws HotelNotFoundException "No such hotel exists"
+     **/
+    public List<OfferDto> getAvailableOffersByHotelName(String hotelName){
+        List<OfferDto> offers = offerRepository.findAvailableOfferDtosByHotelName(hotelName);
+        if(offers.isEmpty()){
+            throw new HotelNotFoundException("No such hotel exists");
+        }
+        return offers.stream()
+                .filter(offer -> offer.getName() != null)
+                .toList();
+    }
+
+    /**
+     * This method gets a part of hotel name as a param.
+     * Then, it uses the HotelRepository class to find ids of hotels whose name contains given phrase with n-gram full-text index.
+     * Next, it selects OfferDto objects of these hotels directly by OfferRepository projection.
+     * Phrases shorter than n-gram token size (2 characters by default) do not match any hotel.
+     * @param phrase
+     * @return List of OfferDto
+     **/
+    public List<OfferDto> searchOffersByHotelName(String phrase){
+        List<Integer> hotelIds = hotelRepository.findIdsByNameMatching("\"" + phrase.replace("\"", "") + "\"");
+        if(hotelIds.isEmpty()){
+            return List.of();
+        }
+        return offerRepository.findOfferDtosByHotelIds(hotelIds);
+    }
 }
@@ -0,0 +1,88 @@
+package com.sda.travelagency.service;
+
+import com.sda.travelagency.dtos.CursorPage;
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.exception.HotelNotFoundException;
+import com.sda.travelagency.exception.OfferNotFoundException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.function.Function;
+
+@Service
+public class ReactiveCatalogService {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final OfferService offerService;
+
+    private final HotelService hotelService;
+
+    private final Scheduler catalogScheduler;
+
+    public ReactiveCatalogService(OfferService offerService, HotelService hotelService, Scheduler catalogScheduler) {
+        this.offerService = offerService;
+        this.hotelService = hotelService;
+        this.catalogScheduler = catalogScheduler;
+    }
+
+    /**
+     * This method emits all offers sorted by price.
+     * Offers are fetched page by page with OfferService keyset pagination on catalog scheduler,
+     * next page is fetched only when subscriber requests more elements.
+     * @return Flux of OfferDto
+     **/
+    public Flux<OfferDto> getAllOffers() {
+        return pages(cursor -> offerService.getOffersPage(cursor, PAGE_SIZE));
+    }
+
+    /**
+     * This method emits an offer with given name found by OfferService on catalog scheduler.
+     * @param offerName
+     * @return Mono of OfferDto
+     * @throws OfferNotFoundException "No such offer exists"
+     **/
+    public Mono<OfferDto> getOffer(String offerName) {
+        return Mono.fromCallable(() -> offerService.getOffer(offerName)).subscribeOn(catalogScheduler);
+    }
+
+    /**
+     * This method emits all hotels sorted by id, fetched page by page on demand like getAllOffers.
+     * @return Flux of HotelDto
+     **/
+    public Flux<HotelDto> getAllHotels() {
+        return pages(cursor -> hotelService.getHotelsPage(cursor, PAGE_SIZE));
+    }
+
+    /**
+     * This method emits all hotels sorted by rating and id desc, hotels without rating last,
+     * fetched page by page on demand like getAllOffers.
+     * @return Flux of HotelDto
+     **/
+    public Flux<HotelDto> getTopHotels() {
+        return pages(cursor -> hotelService.getTopHotelsPage(cursor, PAGE_SIZE));
+    }
+
+    /**
+     * This method emits a hotel with given name found by HotelService on catalog scheduler.
+     * @param hotelName
+     * @return Mono of HotelDto
+     * @throws HotelNotFoundException "No such hotel exists"
+     **/
+    public Mono<HotelDto> getHotel(String hotelName) {
+        return Mono.fromCallable(() -> hotelService.getHotel(hotelName)).subscribeOn(catalogScheduler);
+    }
+
+    private <T> Flux<T> pages(Function<String, CursorPage<T>> pageFetcher) {
+        return page(pageFetcher, null)
+                .expand(page -> page.getNextCursor() == null ? Mono.empty() : page(pageFetcher, page.getNextCursor()))
+                .concatMapIterable(CursorPage::getContent, 1);
+    }
+
+    private <T> Mono<CursorPage<T>> page(Function<String, CursorPage<T>> pageFetcher, String cursor) {
+        return Mono.fromCallable(() -> pageFetcher.apply(cursor)).subscribeOn(catalogScheduler);
+    }
+}
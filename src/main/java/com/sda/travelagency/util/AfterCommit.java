@@ -0,0 +1,25 @@
+package com.sda.travelagency.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class AfterCommit {
+    /**
+     * This util method runs given change of in-memory state once the current transaction is committed,
+     * so a rolled back change never reaches it. Without an active transaction the change is run immediately.
+     * @param change
+     * @return void
+     **/
+    public static void run(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
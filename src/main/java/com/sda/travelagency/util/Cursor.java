@@ -0,0 +1,49 @@
+package com.sda.travelagency.util;
+
+import com.sda.travelagency.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public class Cursor {
+    private static final String SEPARATOR = "|";
+
+    /**
+     * This util method takes values of the last returned row sort key (e.g. price and id) as a param
+     * and encodes them into opaque, url safe continuation token.
+     * @param values
+     * @return continuation token
+     **/
+    public static String encode(Object... values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This util method decodes continuation token created by encode method into its sort key values.
+     * If token is malformed or does not contain expected number of values it throws InvalidCursorException.
+     * The last value is not split, so it may contain the separator itself, e.g. when it is an offer name.
+     * @param cursor
+     * @param size expected number of values
+     * @return sort key values
+     * @throws InvalidCursorException "Invalid cursor"
+     **/
+    public static String[] decode(String cursor, int size) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = decoded.split("\\" + SEPARATOR, size);
+            if (values.length != size) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -1,6 +1,3 @@
-CREATE database if not exists offer;
-CREATE database if not exists test;
-
 CREATE TABLE IF NOT EXISTS continent (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255)
@@ -37,7 +34,6 @@ CREATE TABLE IF NOT EXISTS offer (
     CONSTRAINT FK_hotel_id FOREIGN KEY (hotel_id) REFERENCES hotel(id)
 );
 
-DROP TABLE IF EXISTS users;
 CREATE TABLE IF NOT EXISTS users (
     id INT NOT NULL AUTO_INCREMENT,
     username VARCHAR(50) NOT NULL,
@@ -46,7 +42,6 @@ CREATE TABLE IF NOT EXISTS users (
     PRIMARY KEY(id)
     );
 
-DROP TABLE IF EXISTS authorities;
 CREATE TABLE IF NOT EXISTS authorities (
     id INT NOT NULL AUTO_INCREMENT,
     username VARCHAR(50) NOT NULL,
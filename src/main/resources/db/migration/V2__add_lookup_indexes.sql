@@ -0,0 +1,16 @@
+ALTER TABLE continent ADD KEY IDX_continent_name (name);
+
+ALTER TABLE country ADD KEY IDX_country_name (name);
+
+ALTER TABLE city ADD UNIQUE KEY UK_city_name (name);
+
+ALTER TABLE hotel
+    ADD UNIQUE KEY UK_hotel_name (name),
+    ADD KEY IDX_hotel_rating_id (rating, id);
+
+ALTER TABLE hotel ADD FULLTEXT KEY FT_hotel_name (name) WITH PARSER ngram;
+
+ALTER TABLE offer
+    ADD UNIQUE KEY UK_offer_name (name),
+    ADD KEY IDX_offer_price_id (price, id),
+    ADD KEY IDX_offer_user_name_price_id (user_name, price, id);
@@ -0,0 +1 @@
+ALTER TABLE hotel MODIFY rating DECIMAL(3,1);
@@ -0,0 +1,2 @@
+-- Offers without price cannot be paged by price nor indexed, price them or delete them before this migration.
+ALTER TABLE offer MODIFY price DECIMAL NOT NULL;
@@ -0,0 +1,63 @@
+-- Repeatable and idempotent: every row is inserted only if no row with its name exists yet
+-- and parents are resolved by name, so running it again never duplicates catalog rows.
+
+INSERT INTO continent (name)
+SELECT seed.name
+FROM (
+    SELECT 'Europe' AS name
+    UNION ALL SELECT 'North America'
+    UNION ALL SELECT 'South America'
+    UNION ALL SELECT 'Asia'
+    UNION ALL SELECT 'Africa'
+    UNION ALL SELECT 'Australia'
+) seed
+WHERE NOT EXISTS (SELECT 1 FROM continent WHERE continent.name = seed.name);
+
+INSERT INTO country (name, continent_id)
+SELECT seed.name, continent.id
+FROM (
+    SELECT 'Argentina' AS name, 'Europe' AS continent_name
+    UNION ALL SELECT 'Bolivia', 'North America'
+    UNION ALL SELECT 'Brazil', 'South America'
+    UNION ALL SELECT 'Chile', 'Asia'
+    UNION ALL SELECT 'Colombia', 'Europe'
+    UNION ALL SELECT 'Ecuador', 'Europe'
+    UNION ALL SELECT 'Guyana', 'Europe'
+    UNION ALL SELECT 'Paraguay', 'Europe'
+    UNION ALL SELECT 'Peru', 'Europe'
+    UNION ALL SELECT 'Suriname', 'Europe'
+    UNION ALL SELECT 'Uruguay', 'Europe'
+    UNION ALL SELECT 'Venezuela', 'Europe'
+) seed
+JOIN continent ON continent.name = seed.continent_name
+WHERE NOT EXISTS (SELECT 1 FROM country WHERE country.name = seed.name);
+
+INSERT INTO city (name, country_id)
+SELECT seed.name, country.id
+FROM (
+    SELECT 'Kraków' AS name, 'Argentina' AS country_name
+    UNION ALL SELECT 'Wrocław', 'Bolivia'
+    UNION ALL SELECT 'Warszawa', 'Brazil'
+) seed
+JOIN country ON country.name = seed.country_name
+WHERE NOT EXISTS (SELECT 1 FROM city WHERE city.name = seed.name);
+
+INSERT INTO hotel (name, city_id, rating)
+SELECT seed.name, city.id, seed.rating
+FROM (
+    SELECT 'Hilton' AS name, 'Kraków' AS city_name, 8.0 AS rating
+    UNION ALL SELECT 'Cubus', 'Wrocław', 7.0
+    UNION ALL SELECT 'Marriot', 'Warszawa', 9.0
+) seed
+JOIN city ON city.name = seed.city_name
+WHERE NOT EXISTS (SELECT 1 FROM hotel WHERE hotel.name = seed.name);
+
+INSERT INTO offer (name, hotel_id, price)
+SELECT seed.name, hotel.id, seed.price
+FROM (
+    SELECT 'Kraków_offer' AS name, 'Hilton' AS hotel_name, 100.0 AS price
+    UNION ALL SELECT 'Wrocław_offer', 'Hilton', 200.0
+    UNION ALL SELECT 'Warszawa_offer', 'Marriot', 300.0
+) seed
+JOIN hotel ON hotel.name = seed.hotel_name
+WHERE NOT EXISTS (SELECT 1 FROM offer WHERE offer.name = seed.name);
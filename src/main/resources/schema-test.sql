@@ -9,38 +9,47 @@ DROP TABLE IF EXISTS authorities;
 
 CREATE TABLE IF NOT EXISTS continent (
     id INT AUTO_INCREMENT PRIMARY KEY,
-    name VARCHAR(255)
+    name VARCHAR(255),
+    KEY IDX_continent_name (name)
 );
 
 CREATE TABLE IF NOT EXISTS country (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255),
     continent_id INT,
-    CONSTRAINT FK_continent_id FOREIGN KEY (continent_id) REFERENCES continent(id)
+    CONSTRAINT FK_continent_id FOREIGN KEY (continent_id) REFERENCES continent(id),
+    KEY IDX_country_name (name)
 );
 
 CREATE TABLE IF NOT EXISTS city (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255),
     country_id INT,
-    CONSTRAINT FK_country_id FOREIGN KEY (country_id) REFERENCES country(id)
+    CONSTRAINT FK_country_id FOREIGN KEY (country_id) REFERENCES country(id),
+    UNIQUE KEY UK_city_name (name)
 );
 
 CREATE TABLE IF NOT EXISTS hotel (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255),
     city_id INT,
-    rating FLOAT(1),
-    CONSTRAINT FK_city_id FOREIGN KEY (city_id) REFERENCES city(id)
+    rating DECIMAL(3,1),
+    CONSTRAINT FK_city_id FOREIGN KEY (city_id) REFERENCES city(id),
+    UNIQUE KEY UK_hotel_name (name),
+    KEY IDX_hotel_rating_id (rating, id),
+    FULLTEXT KEY FT_hotel_name (name) WITH PARSER ngram
 );
 
 CREATE TABLE IF NOT EXISTS offer (
     id INT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(255),
     hotel_id INT,
-    price DECIMAL,
+    price DECIMAL NOT NULL,
     user_name VARCHAR(255),
-    CONSTRAINT FK_hotel_id FOREIGN KEY (hotel_id) REFERENCES hotel(id)
+    CONSTRAINT FK_hotel_id FOREIGN KEY (hotel_id) REFERENCES hotel(id),
+    UNIQUE KEY UK_offer_name (name),
+    KEY IDX_offer_price_id (price, id),
+    KEY IDX_offer_user_name_price_id (user_name, price, id)
     );
 
 CREATE TABLE IF NOT EXISTS users (
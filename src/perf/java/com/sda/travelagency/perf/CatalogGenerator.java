@@ -0,0 +1,155 @@
+package com.sda.travelagency.perf;
+
+import com.sda.travelagency.entities.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Generates a deterministic synthetic catalogue of the Continent -> Country -> City -> Hotel -> Offer hierarchy.
+ * The same size and seed always produce the same names, ratings and prices,
+ * so results of benchmarks and load tests are comparable between commits.
+ **/
+public class CatalogGenerator {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final String[] CONTINENTS = {"Africa", "Antarctica", "Asia", "Australia", "Europe", "North America", "South America"};
+    private static final int OFFERS_PER_HOTEL = 10;
+    private static final int HOTELS_PER_CITY = 10;
+    private static final int CITIES_PER_COUNTRY = 10;
+    private static final int BATCH_SIZE = 10_000;
+
+    private final int offers;
+
+    private final long seed;
+
+    public CatalogGenerator(int offers, long seed) {
+        if (offers < 1) {
+            throw new IllegalArgumentException("Catalogue must contain at least one offer");
+        }
+        this.offers = offers;
+        this.seed = seed;
+    }
+
+    public CatalogGenerator(int offers) {
+        this(offers, DEFAULT_SEED);
+    }
+
+    public int offers() {
+        return offers;
+    }
+
+    public int hotels() {
+        return ceilDiv(offers, OFFERS_PER_HOTEL);
+    }
+
+    public int cities() {
+        return ceilDiv(hotels(), HOTELS_PER_CITY);
+    }
+
+    public int countries() {
+        return ceilDiv(cities(), CITIES_PER_COUNTRY);
+    }
+
+    public static String offerName(int offer) {
+        return "Offer " + offer;
+    }
+
+    public static String hotelName(int hotel) {
+        return "Hotel " + hotel;
+    }
+
+    public static String cityName(int city) {
+        return "City " + city;
+    }
+
+    public static String countryName(int country) {
+        return "Country " + country;
+    }
+
+    /**
+     * This method inserts the whole catalogue into an empty database with JDBC batches of 10 000 rows.
+     * Ids are assigned explicitly starting from 1, offers are inserted without reservation.
+     * @param jdbcTemplate
+     * @return void
+     **/
+    public void insert(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(seed);
+        batchInsert(jdbcTemplate, "INSERT INTO continent (id, name) VALUES (?, ?)", CONTINENTS.length,
+                continent -> new Object[]{continent, CONTINENTS[continent - 1]});
+        batchInsert(jdbcTemplate, "INSERT INTO country (id, name, continent_id) VALUES (?, ?, ?)", countries(),
+                country -> new Object[]{country, countryName(country), continentOf(country)});
+        batchInsert(jdbcTemplate, "INSERT INTO city (id, name, country_id) VALUES (?, ?, ?)", cities(),
+                city -> new Object[]{city, cityName(city), parentOf(city, CITIES_PER_COUNTRY)});
+        batchInsert(jdbcTemplate, "INSERT INTO hotel (id, name, rating, city_id) VALUES (?, ?, ?, ?)", hotels(),
+                hotel -> new Object[]{hotel, hotelName(hotel), rating(random), parentOf(hotel, HOTELS_PER_CITY)});
+        batchInsert(jdbcTemplate, "INSERT INTO offer (id, name, price, hotel_id) VALUES (?, ?, ?, ?)", offers,
+                offer -> new Object[]{offer, offerName(offer), price(random), parentOf(offer, OFFERS_PER_HOTEL)});
+    }
+
+    /**
+     * This method builds the same catalogue as insert, but as detached entities kept in memory.
+     * Returned offers reference their hotels, cities, countries and continents, so they can be mapped without a database.
+     * @return List of Offer
+     **/
+    public List<Offer> entities() {
+        Random random = new Random(seed);
+        List<Continent> continents = new ArrayList<>();
+        for (String continent : CONTINENTS) {
+            continents.add(new Continent(continent, new ArrayList<>()));
+        }
+        List<Country> countries = new ArrayList<>();
+        for (int country = 1; country <= countries(); country++) {
+            countries.add(new Country(countryName(country), continents.get(continentOf(country) - 1)));
+        }
+        List<City> cities = new ArrayList<>();
+        for (int city = 1; city <= cities(); city++) {
+            cities.add(new City(cityName(city), countries.get(parentOf(city, CITIES_PER_COUNTRY) - 1)));
+        }
+        List<Hotel> hotels = new ArrayList<>();
+        for (int hotel = 1; hotel <= hotels(); hotel++) {
+            hotels.add(new Hotel(hotelName(hotel), rating(random), cities.get(parentOf(hotel, HOTELS_PER_CITY) - 1)));
+        }
+        List<Offer> generatedOffers = new ArrayList<>(offers);
+        for (int offer = 1; offer <= offers; offer++) {
+            generatedOffers.add(new Offer(offerName(offer), price(random), hotels.get(parentOf(offer, OFFERS_PER_HOTEL) - 1)));
+        }
+        return generatedOffers;
+    }
+
+    private static void batchInsert(JdbcTemplate jdbcTemplate, String sql, int rows, IntFunction<Object[]> row) {
+        List<Object[]> batch = new ArrayList<>(Math.min(rows, BATCH_SIZE));
+        for (int id = 1; id <= rows; id++) {
+            batch.add(row.apply(id));
+            if (batch.size() == BATCH_SIZE || id == rows) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static int continentOf(int country) {
+        return (country - 1) % CONTINENTS.length + 1;
+    }
+
+    private static int parentOf(int child, int childrenPerParent) {
+        return (child - 1) / childrenPerParent + 1;
+    }
+
+    private static BigDecimal rating(Random random) {
+        return BigDecimal.valueOf(10 + random.nextInt(91), 1);
+    }
+
+    private static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(10_000 + random.nextInt(990_000), 2);
+    }
+
+    private static int ceilDiv(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+}
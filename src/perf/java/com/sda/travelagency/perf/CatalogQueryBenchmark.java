@@ -0,0 +1,85 @@
+package com.sda.travelagency.perf;
+
+import com.sda.travelagency.TravelAgencyApplication;
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.mapper.OfferMapper;
+import com.sda.travelagency.entities.Offer;
+import com.sda.travelagency.service.HotelService;
+import com.sda.travelagency.service.OfferService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures list endpoints' service calls against an in-memory H2 database seeded by CatalogGenerator.
+ * Catalogue size is set with -p offers=..., 1000000 offers need about 2 GB of heap.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogQueryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int offers;
+
+    private ConfigurableApplicationContext context;
+
+    private OfferService offerService;
+
+    private HotelService hotelService;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(TravelAgencyApplication.class)
+                .run("--spring.profiles.active=perf", "--server.port=0");
+        new CatalogGenerator(offers).insert(context.getBean(JdbcTemplate.class));
+        offerService = context.getBean(OfferService.class);
+        hotelService = context.getBean(HotelService.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<OfferDto> getAllOffers() {
+        return offerService.getAllOffers();
+    }
+
+    @Benchmark
+    public List<HotelDto> getAllHotels() {
+        return hotelService.getAllHotels();
+    }
+
+    /**
+     * Baseline for getAllOffers: loads Offer entities with whole geography fetch-joined and maps them to OfferDto,
+     * which is how offers were listed before DTO projection.
+     **/
+    @Benchmark
+    public List<OfferDto> mapOfferEntities() {
+        return transactionTemplate.execute(status -> entityManager.createQuery("Select o FROM Offer o JOIN FETCH o.hotel h "
+                        + "JOIN FETCH h.city c JOIN FETCH c.country co JOIN FETCH co.continent", Offer.class)
+                .getResultList().stream()
+                .map(OfferMapper::offerToOfferDto)
+                .toList());
+    }
+}
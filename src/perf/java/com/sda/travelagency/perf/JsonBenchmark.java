@@ -0,0 +1,56 @@
+package com.sda.travelagency.perf;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.mapper.OfferMapper;
+import com.sda.travelagency.serializer.JsonOutput;
+import com.sda.travelagency.serializer.JsonSerializableWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering of List<OfferDto> to JSON bytes with Jackson and with JsonSerializableWriter used by the offer endpoints.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int offers;
+
+    private List<OfferDto> offerDtos;
+
+    private ObjectMapper objectMapper;
+
+    private JsonSerializableWriter writer;
+
+    private JsonOutput output;
+
+    @Setup(Level.Trial)
+    public void generateCatalogue() {
+        offerDtos = new CatalogGenerator(offers).entities().stream().map(OfferMapper::offerToOfferDto).toList();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = JsonSerializableWriter.forPackage(OfferDto.class.getPackageName());
+        output = new JsonOutput(8 * 1024);
+    }
+
+    @Benchmark
+    public byte[] jackson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(offerDtos);
+    }
+
+    @Benchmark
+    public int jsonSerializableWriter() {
+        output.reset();
+        writer.writeAll(offerDtos, output);
+        return output.size();
+    }
+}
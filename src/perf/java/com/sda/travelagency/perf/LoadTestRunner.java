@@ -0,0 +1,263 @@
+package com.sda.travelagency.perf;
+
+import com.sda.travelagency.TravelAgencyApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drives the read endpoints over HTTP against the application running on in-memory H2 seeded by CatalogGenerator.
+ * For every endpoint it reports throughput, p50/p99/p999 latency and allocation rate of request threads.
+ * Allocation is estimated from JFR jdk.ObjectAllocationSample events of Tomcat (http-nio-*) threads and unnamed virtual threads,
+ * so it covers both thread modes and excludes threads of the load generator itself.
+ * Run with: mvn -Pperf compile exec:exec -Dperf.main=com.sda.travelagency.perf.LoadTestRunner -Dperf.args="--offers=1000000 --clients=64"
+ * Options: --offers, --clients, --warmup and --duration (seconds), --endpoints (comma separated names), --output (json report file)
+ * and any application property, for example --travelagency.threads.virtual=true.
+ * To compare platform and virtual request threads run it twice, on Java 21 (-Pperf,java21) with and without --travelagency.threads.virtual=true.
+ **/
+public class LoadTestRunner implements AutoCloseable {
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString("testUser:password".getBytes(StandardCharsets.UTF_8));
+    private static final String REQUEST_THREAD_PREFIX = "http-nio-";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Map<String, Function<Random, String>> endpoints = new LinkedHashMap<>();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private final RecordingStream allocations = new RecordingStream();
+
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    private final AtomicLong flushes = new AtomicLong();
+
+    private volatile Instant measuredFrom = Instant.MAX;
+
+    private volatile Instant measuredTo = Instant.MAX;
+
+    private final int clients;
+
+    private final Duration warmup;
+
+    private final Duration duration;
+
+    private LoadTestRunner(CatalogGenerator catalog, int clients, Duration warmup, Duration duration) {
+        this.clients = clients;
+        this.warmup = warmup;
+        this.duration = duration;
+        int offers = catalog.offers();
+        int hotels = catalog.hotels();
+        int cities = catalog.cities();
+        endpoints.put("offer", random -> "/offers/" + encode(CatalogGenerator.offerName(random.nextInt(offers) + 1)));
+        endpoints.put("offersPage", random -> "/offers/page?size=50");
+        endpoints.put("offersByPrice", random -> {
+            int minPrice = 100 + random.nextInt(9800);
+            return "/offers/filterByPrice?minPrice=" + minPrice + "&maxPrice=" + (minPrice + 10);
+        });
+        endpoints.put("offersByHotel", random -> "/offers/filterByHotel?hotelName=" + encode(CatalogGenerator.hotelName(random.nextInt(hotels) + 1)));
+        endpoints.put("hotel", random -> "/hotels/" + encode(CatalogGenerator.hotelName(random.nextInt(hotels) + 1)));
+        endpoints.put("hotelsPage", random -> "/hotels/page?size=50");
+        endpoints.put("topHotelsPage", random -> "/hotels/topHotels/page?size=50");
+        endpoints.put("hotelsByCity", random -> "/hotels/filterByCity?cityName=" + encode(CatalogGenerator.cityName(random.nextInt(cities) + 1)));
+        endpoints.put("offers", random -> "/offers");
+        endpoints.put("hotels", random -> "/hotels");
+        allocations.enable(ALLOCATION_SAMPLE).with("throttle", "1000/s");
+        allocations.onEvent(ALLOCATION_SAMPLE, this::onAllocation);
+        allocations.onFlush(flushes::incrementAndGet);
+        allocations.startAsync();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>(List.of("--spring.profiles.active=perf", "--server.port=0"));
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length == 2 && List.of("offers", "clients", "warmup", "duration", "endpoints", "output").contains(option[0])) {
+                options.put(option[0], option[1]);
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        CatalogGenerator catalog = new CatalogGenerator(Integer.parseInt(options.getOrDefault("offers", "100000")));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TravelAgencyApplication.class)
+                .run(applicationArgs.toArray(String[]::new))) {
+            long start = System.nanoTime();
+            catalog.insert(context.getBean(JdbcTemplate.class));
+            System.out.printf("Generated %d offers in %d ms%n", catalog.offers(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+            List<Result> results = new ArrayList<>();
+            try (LoadTestRunner runner = new LoadTestRunner(catalog,
+                    Integer.parseInt(options.getOrDefault("clients", "64")),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+                    Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30"))))) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getRequiredProperty("local.server.port");
+                List<String> selected = options.containsKey("endpoints")
+                        ? List.of(options.get("endpoints").split(","))
+                        : List.copyOf(runner.endpoints.keySet());
+                for (String endpoint : selected) {
+                    Result result = runner.run(baseUrl, endpoint.trim());
+                    System.out.println(result);
+                    results.add(result);
+                }
+            }
+            Files.writeString(Path.of(options.getOrDefault("output", "target/loadtest-result.json")),
+                    results.stream().map(Result::toJson).collect(Collectors.joining(",\n", "[\n", "\n]\n")));
+        }
+    }
+
+    private Result run(String baseUrl, String endpoint) throws Exception {
+        Function<Random, String> path = endpoints.get(endpoint);
+        if (path == null) {
+            throw new IllegalArgumentException("Unknown endpoint " + endpoint + ", expected one of " + endpoints.keySet());
+        }
+        drive(baseUrl, path, warmup, new AtomicLong());
+        AtomicLong errors = new AtomicLong();
+        allocatedBytes.reset();
+        measuredTo = Instant.MAX;
+        measuredFrom = Instant.now();
+        long[] latencies = drive(baseUrl, path, duration, errors);
+        long allocated = requestThreadsAllocatedBytes(Instant.now());
+        return new Result(endpoint, latencies.length / (double) duration.toSeconds(),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                allocated / (double) duration.toSeconds() / (1024 * 1024),
+                latencies.length == 0 ? 0 : allocated / latencies.length, errors.get());
+    }
+
+    private long[] drive(String baseUrl, Function<Random, String> path, Duration duration, AtomicLong errors) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long end = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try {
+            for (int client = 0; client < clients; client++) {
+                Random random = new Random(CatalogGenerator.DEFAULT_SEED + client);
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path.apply(random)))
+                                .header("Authorization", AUTHORIZATION)
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        int status = send(request);
+                        long latency = System.nanoTime() - start;
+                        if (status != 200) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = latency;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            List<long[]> perClient = new ArrayList<>();
+            for (Future<long[]> future : futures) {
+                perClient.add(future.get());
+            }
+            long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return latencies;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int send(HttpRequest request) {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * Sampled allocations are delivered in chunks, so it waits for two more flushes to count all samples taken until given time.
+     * Samples of threads which finished meanwhile are counted too.
+     **/
+    private long requestThreadsAllocatedBytes(Instant until) throws InterruptedException {
+        measuredTo = until;
+        long flushed = flushes.get() + 2;
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT.toNanos();
+        while (flushes.get() < flushed && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return allocatedBytes.sum();
+    }
+
+    private void onAllocation(RecordedEvent event) {
+        Instant time = event.getStartTime();
+        if (time.isBefore(measuredFrom) || !time.isBefore(measuredTo)) {
+            return;
+        }
+        RecordedThread thread = event.getThread();
+        if (thread != null && isRequestThread(thread.getJavaName())) {
+            allocatedBytes.add(event.getLong("weight"));
+        }
+    }
+
+    /**
+     * Platform threads always have a name, so only virtual threads, on which requests run with travelagency.threads.virtual=true, are unnamed.
+     **/
+    private static boolean isRequestThread(String name) {
+        return name == null || name.isEmpty() || name.startsWith(REQUEST_THREAD_PREFIX);
+    }
+
+    @Override
+    public void close() {
+        allocations.close();
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private record Result(String endpoint, double throughput, double p50, double p99, double p999,
+                          double allocationRate, long allocatedPerRequest, long errors) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-14s %10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  p999 %8.2f ms  %8.1f MB/s  %8d B/req  %d errors",
+                    endpoint, throughput, p50, p99, p999, allocationRate, allocatedPerRequest, errors);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "  {\"endpoint\": \"%s\", \"throughput\": %.1f, \"p50\": %.3f, \"p99\": %.3f, \"p999\": %.3f, "
+                            + "\"allocationRateMBps\": %.1f, \"allocatedBytesPerRequest\": %d, \"errors\": %d}",
+                    endpoint, throughput, p50, p99, p999, allocationRate, allocatedPerRequest, errors);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sda.travelagency.perf;
+
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.entities.Hotel;
+import com.sda.travelagency.entities.Offer;
+import com.sda.travelagency.mapper.HotelMapper;
+import com.sda.travelagency.mapper.OfferMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures OfferMapper.offerToOfferDto and HotelMapper.hotelToHotelDto for a single entity
+ * and the conversion of whole entity lists which list endpoints used to do.
+ **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int offers;
+
+    private List<Offer> offerEntities;
+
+    private List<Hotel> hotelEntities;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void generateCatalogue() {
+        offerEntities = new CatalogGenerator(offers).entities();
+        hotelEntities = offerEntities.stream().map(Offer::getHotel).distinct().toList();
+    }
+
+    @Benchmark
+    public OfferDto offerToOfferDto() {
+        next = next + 1 == offerEntities.size() ? 0 : next + 1;
+        return OfferMapper.offerToOfferDto(offerEntities.get(next));
+    }
+
+    @Benchmark
+    public HotelDto hotelToHotelDto() {
+        next = next + 1 == hotelEntities.size() ? 0 : next + 1;
+        return HotelMapper.hotelToHotelDto(hotelEntities.get(next % hotelEntities.size()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<OfferDto> offerListToOfferDtos() {
+        return offerEntities.stream().map(OfferMapper::offerToOfferDto).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<HotelDto> hotelListToHotelDtos() {
+        return hotelEntities.stream().map(HotelMapper::hotelToHotelDto).toList();
+    }
+}
@@ -0,0 +1,169 @@
+package com.sda.travelagency.perf;
+
+import com.sda.travelagency.TravelAgencyApplication;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares cold start of the application packaged as plain Spring Boot jar with fast-startup modes:
+ * Spring AOT, Spring AOT with class data sharing archive from training run, and GraalVM native image.
+ * Every run starts a new process with travelagency.startup.exit-after-ready=true and measures wall time until the "Started" log line,
+ * so JVM startup and class loading are included. Modes whose artifacts were not built are skipped.
+ * Class data sharing archive is used only by the same JDK which recorded it.
+ * Build first with: mvn -Pfast-startup package (add -Pnative and native:compile for native image).
+ * Training run recording class data sharing archive starts the application against the configured database, so it is skipped by default,
+ * record it with -Dcds.skip=false -Dcds.training.args="--spring.datasource.url=jdbc:mysql://localhost:3306/throwaway",
+ * then run with: mvn -Pperf compile exec:exec -Dperf.main=com.sda.travelagency.perf.StartupBenchmark -Dperf.args="--runs=10"
+ * Options: --runs, --warmup (discarded runs), --modes (comma separated: jar, aot, cds, native), --target (build directory), --output (json report file)
+ * and any application property, for example --spring.datasource.url=jdbc:mysql://db:3306/offer.
+ **/
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started TravelAgencyApplication in ([0-9.]+) seconds");
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>(List.of("--server.port=0", "--" + TravelAgencyApplication.EXIT_AFTER_READY + "=true"));
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            if (option.length == 2 && List.of("runs", "warmup", "modes", "target", "output").contains(option[0])) {
+                options.put(option[0], option[1]);
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        Map<String, Mode> modes = modes(Path.of(options.getOrDefault("target", "target")));
+        List<String> selected = options.containsKey("modes")
+                ? List.of(options.get("modes").split(","))
+                : List.copyOf(modes.keySet());
+        List<Result> results = new ArrayList<>();
+        for (String name : selected) {
+            Mode mode = modes.get(name.trim());
+            if (mode == null) {
+                throw new IllegalArgumentException("Unknown mode " + name + ", expected one of " + modes.keySet());
+            }
+            if (!Files.exists(mode.artifact())) {
+                System.out.printf("Skipping %s, %s not found%n", mode.name(), mode.artifact());
+                continue;
+            }
+            for (int run = 0; run < warmup; run++) {
+                start(mode, applicationArgs);
+            }
+            List<Sample> samples = new ArrayList<>();
+            for (int run = 0; run < runs; run++) {
+                samples.add(start(mode, applicationArgs));
+            }
+            Result result = Result.of(mode.name(), samples);
+            System.out.println(result);
+            results.add(result);
+        }
+        Files.writeString(Path.of(options.getOrDefault("output", "target/startup-result.json")),
+                results.stream().map(Result::toJson).collect(Collectors.joining(",\n", "[\n", "\n]\n")));
+    }
+
+    private static Map<String, Mode> modes(Path target) throws IOException {
+        Path fastStartup = target.resolve("fast-startup");
+        Path jar = find(target, "glob:*.jar").orElse(target.resolve("travel-agency.jar"));
+        Path appJar = find(fastStartup, "glob:*-app.jar").orElse(fastStartup.resolve("travel-agency-app.jar"));
+        Path archive = fastStartup.resolve("application.jsa");
+        Path image = target.resolve("travel-agency");
+        Map<String, Mode> modes = new LinkedHashMap<>();
+        modes.put("jar", new Mode("jar", jar, target,
+                List.of("java", "-jar", jar.getFileName().toString())));
+        modes.put("aot", new Mode("aot", appJar, fastStartup,
+                List.of("java", "-Dspring.aot.enabled=true", "-jar", appJar.getFileName().toString())));
+        modes.put("cds", new Mode("cds", archive, fastStartup,
+                List.of("java", "-XX:SharedArchiveFile=" + archive.getFileName(), "-Dspring.aot.enabled=true", "-jar", appJar.getFileName().toString())));
+        modes.put("native", new Mode("native", image, target,
+                List.of(image.toAbsolutePath().toString())));
+        return modes;
+    }
+
+    private static Optional<Path> find(Path directory, String pattern) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher(pattern);
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> matcher.matches(file.getFileName())).sorted().findFirst();
+        }
+    }
+
+    private static Sample start(Mode mode, List<String> applicationArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(mode.command());
+        command.addAll(applicationArgs);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(mode.workingDirectory().toFile())
+                .redirectErrorStream(true)
+                .start();
+        CompletableFuture.delayedExecutor(TIMEOUT.toSeconds(), TimeUnit.SECONDS).execute(process::destroyForcibly);
+        Sample sample = null;
+        List<String> output = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (sample == null) {
+                    output.add(line);
+                    Matcher matcher = STARTED.matcher(line);
+                    if (matcher.find()) {
+                        sample = new Sample((System.nanoTime() - start) / 1_000_000.0, Double.parseDouble(matcher.group(1)) * 1000);
+                    }
+                }
+            }
+        }
+        process.waitFor();
+        if (sample == null) {
+            throw new IllegalStateException("Application in mode " + mode.name() + " did not start:\n" + String.join("\n", output));
+        }
+        return sample;
+    }
+
+    private record Mode(String name, Path artifact, Path workingDirectory, List<String> command) {
+    }
+
+    private record Sample(double wallTime, double contextTime) {
+    }
+
+    private record Result(String mode, int runs, double min, double median, double max, double contextMedian) {
+
+        static Result of(String mode, List<Sample> samples) {
+            double[] wallTimes = samples.stream().mapToDouble(Sample::wallTime).sorted().toArray();
+            double[] contextTimes = samples.stream().mapToDouble(Sample::contextTime).sorted().toArray();
+            return new Result(mode, samples.size(), wallTimes[0], median(wallTimes), wallTimes[wallTimes.length - 1], median(contextTimes));
+        }
+
+        private static double median(double[] sorted) {
+            int middle = sorted.length / 2;
+            return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-7s %3d runs  min %8.1f ms  median %8.1f ms  max %8.1f ms  context median %8.1f ms",
+                    mode, runs, min, median, max, contextMedian);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "  {\"mode\": \"%s\", \"runs\": %d, \"minMs\": %.1f, \"medianMs\": %.1f, \"maxMs\": %.1f, \"contextMedianMs\": %.1f}",
+                    mode, runs, min, median, max, contextMedian);
+        }
+    }
+}
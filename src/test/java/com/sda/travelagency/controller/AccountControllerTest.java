@@ -0,0 +1,154 @@
+package com.sda.travelagency.controller;
+
+import com.sda.travelagency.dtos.AccountDto;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.security.AuthenticationCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class AccountControllerTest {
+    @Autowired
+    private WebTestClient testClient;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Test
+    void shouldGetOffersWithIssuedToken() {
+        String token = testClient
+                .post()
+                .uri("/users/login")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).returnResult().getResponseBody();
+        testClient
+                .get()
+                .uri("/offers")
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headersConsumer -> headersConsumer.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(OfferDto.class);
+    }
+
+    @Test
+    void shouldNotGetOffersWithForgedToken() {
+        testClient
+                .get()
+                .uri("/offers")
+                .headers(headersConsumer -> headersConsumer.setBearerAuth("dGVzdFVzZXI.Zm9yZ2Vk"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void shouldNotIssueTokenForTokenAuthentication() {
+        String token = testClient
+                .post()
+                .uri("/users/login")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).returnResult().getResponseBody();
+        ProblemDetail detail = testClient
+                .post()
+                .uri("/users/login")
+                .headers(headersConsumer -> headersConsumer.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ProblemDetail.class).returnResult().getResponseBody();
+        Assertions.assertEquals("Token can be issued only for password authentication", detail.getDetail());
+    }
+
+    @Test
+    void shouldNotAuthenticateDisabledAccountFromCache() {
+        testClient
+                .get()
+                .uri("/offers")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isOk();
+        UserDetails cachedUser = authenticationCache.getUserFromCache("testUser");
+        Assertions.assertNotNull(cachedUser);
+        authenticationCache.putUserInCache(User.withUserDetails(cachedUser).disabled(true).build());
+        try {
+            testClient
+                    .get()
+                    .uri("/offers")
+                    .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                    .exchange()
+                    .expectStatus().isUnauthorized();
+            Assertions.assertNull(authenticationCache.getUserFromCache("testUser"));
+        } finally {
+            authenticationCache.removeUserFromCache("testUser");
+        }
+    }
+
+    @Test
+    void shouldNotCacheCredentialsVerifiedBeforeEviction() {
+        UserDetails user = User.withUsername("evictedUser").password("{noop}old").roles("USER").build();
+        long stamp = authenticationCache.stamp();
+        authenticationCache.removeUserFromCache("evictedUser");
+
+        authenticationCache.putVerified(user, "old", stamp);
+
+        Assertions.assertNull(authenticationCache.getUserFromCache("evictedUser"));
+        Assertions.assertFalse(authenticationCache.isVerified("evictedUser", "old"));
+        authenticationCache.putVerified(user, "old", authenticationCache.stamp());
+        Assertions.assertTrue(authenticationCache.isVerified("evictedUser", "old"));
+        authenticationCache.removeUserFromCache("evictedUser");
+    }
+
+    @Test
+    void shouldRevokeTokenAfterPasswordChange() {
+        testClient
+                .post()
+                .uri("/users/create")
+                .bodyValue(new AccountDto("tokenUser", "password"))
+                .exchange()
+                .expectStatus().isCreated();
+        String token = testClient
+                .post()
+                .uri("/users/login")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("tokenUser", "password"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(String.class).returnResult().getResponseBody();
+        testClient
+                .put()
+                .uri("/users/changePassword?password=newPassword")
+                .headers(headersConsumer -> headersConsumer.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isForbidden();
+        testClient
+                .put()
+                .uri("/users/changePassword?password=newPassword")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("tokenUser", "password"))
+                .exchange()
+                .expectStatus().isAccepted();
+        testClient
+                .get()
+                .uri("/offers")
+                .headers(headersConsumer -> headersConsumer.setBearerAuth(token))
+                .exchange()
+                .expectStatus().isUnauthorized();
+        testClient
+                .delete()
+                .uri("/users/delete")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("tokenUser", "newPassword"))
+                .exchange()
+                .expectStatus().isAccepted();
+    }
+}
@@ -11,11 +11,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -32,7 +34,7 @@ class HotelControllerTest {
     private HotelRepository hotelRepository;
     @Autowired
     private OfferRepository offerRepository;
-    private final Float RATING = 10.0f;
+    private final BigDecimal RATING = new BigDecimal("10.0");
 
 
     @Test
@@ -112,7 +114,7 @@ class HotelControllerTest {
         testClient
                 .put()
                 .uri("/hotels/{name}", hotelRepository.findAll().get(0).getName())
-                .bodyValue(new HotelDto("testHotel", RATING, cityRepository.findAll().get(0).getName()))
+                .bodyValue(new HotelDto("updatedTestHotel", RATING, cityRepository.findAll().get(0).getName()))
                 .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
                 .exchange()
                 .expectStatus().isAccepted();
@@ -166,6 +168,18 @@ class HotelControllerTest {
         Assertions.assertEquals("No such city exists", detail.getDetail());
     }
 
+    @Test
+    void shouldNotAddHotelWithExistingName (){
+        ProblemDetail detail = testClient
+                .post()
+                .uri("/hotels/addHotel")
+                .bodyValue(new HotelDto(hotelRepository.findAll().get(0).getName(), RATING, cityRepository.findAll().get(0).getName()))
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody(ProblemDetail.class).returnResult().getResponseBody();
+        Assertions.assertEquals("Name is already taken or still referenced", detail.getDetail());
+    }
 
     @Test
     void shouldNotAddHotelWithBlankName (){
@@ -230,7 +244,7 @@ class HotelControllerTest {
 
     @Test
     void shouldDeleteHotel(){
-        Hotel hotelToDelete = hotelRepository.findAll().get(0);
+        Hotel hotelToDelete = hotelRepository.findWithOffersByName(hotelRepository.findAll().get(0).getName()).orElseThrow();
         hotelToDelete.getOffers().forEach(offer -> offerRepository.deleteById(offer.getId()));
         testClient
                 .delete()
@@ -241,4 +255,4 @@ class HotelControllerTest {
     }
 
 
-}
\ No newline at end of file
+}
\ No newline at end of file
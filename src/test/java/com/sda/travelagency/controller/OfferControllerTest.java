@@ -1,7 +1,8 @@
 package com.sda.travelagency.controller;
 
 
-import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.CursorPage;
+import com.sda.travelagency.dtos.ImportReport;
 import com.sda.travelagency.dtos.OfferDto;
 import com.sda.travelagency.entities.Hotel;
 import com.sda.travelagency.entities.Offer;
@@ -12,12 +13,17 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -75,6 +81,29 @@ class OfferControllerTest {
                 .expectStatus().isCreated();
     }
 
+    @Test
+    void shouldNotAddOfferWithoutPrice() {
+        Hotel testHotel = hotelRepository.findAll().get(0);
+
+        OfferDto offerDto = new OfferDto(
+                "Offer without price",
+                testHotel.getName(),
+                testHotel.getCity().getName(),
+                testHotel.getCity().getCountry().getName(),
+                testHotel.getCity().getCountry().getContinent().getName(),
+                null);
+
+        testClient
+                .post()
+                .uri("/offers/addOffer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(offerDto)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isBadRequest();
+        Assertions.assertFalse(offerRepository.existsByName("Offer without price"));
+    }
+
     @Test
     void shouldDeleteOffer() {
         Offer testOffer = offerRepository.findAll().get(0);
@@ -210,4 +239,314 @@ class OfferControllerTest {
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBodyList(OfferDto.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetAllOffersPageByPage(){
+        List<OfferDto> collectedOffers = new ArrayList<>();
+        String cursor = null;
+        do {
+            String currentCursor = cursor;
+            CursorPage<OfferDto> page = testClient
+                    .get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/offers/page")
+                            .queryParam("size", 1)
+                            .queryParamIfPresent("cursor", Optional.ofNullable(currentCursor))
+                            .build())
+                    .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(new ParameterizedTypeReference<CursorPage<OfferDto>>() {})
+                    .returnResult().getResponseBody();
+            collectedOffers.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        Assertions.assertEquals(offerRepository.count(), collectedOffers.size());
+    }
+
+    @Test
+    void shouldNotGetOffersPageWithInvalidCursor(){
+        ProblemDetail detail = testClient
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/offers/page")
+                        .queryParam("cursor", INCORRECT_NAME)
+                        .build())
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(ProblemDetail.class).returnResult().getResponseBody();
+        Assertions.assertEquals("Invalid cursor", detail.getDetail());
+    }
+
+    @Test
+    void shouldReserveOffers(){
+        List<String> offerNames = offerRepository.findAll().stream()
+                .filter(offer -> offer.getUserName() == null)
+                .map(Offer::getName)
+                .limit(2)
+                .toList();
+        testClient
+                .put()
+                .uri("/offers/reserve")
+                .bodyValue(offerNames)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody()
+                .jsonPath("$['%s']", offerNames.get(0)).isEqualTo("RESERVED");
+    }
+
+    @Test
+    void shouldNotReserveAnyOfferWhenOneDoesNotExist(){
+        Hotel testHotel = hotelRepository.findAll().get(0);
+        OfferDto availableOffer = new OfferDto(
+                "Basket offer",
+                testHotel.getName(),
+                testHotel.getCity().getName(),
+                testHotel.getCity().getCountry().getName(),
+                testHotel.getCity().getCountry().getContinent().getName(),
+                PRICE);
+        testClient
+                .post()
+                .uri("/offers/addOffer")
+                .bodyValue(availableOffer)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isCreated();
+        testClient
+                .put()
+                .uri("/offers/reserve")
+                .bodyValue(List.of(availableOffer.getName(), INCORRECT_NAME))
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.outcomes['%s']", availableOffer.getName()).isEqualTo("AVAILABLE")
+                .jsonPath("$.outcomes['%s']", INCORRECT_NAME).isEqualTo("NOT_FOUND");
+        Assertions.assertNull(offerRepository.findByName(availableOffer.getName()).orElseThrow().getUserName());
+    }
+
+    @Test
+    void shouldExportAllOffersAsNdjson(){
+        String export = testClient
+                .get()
+                .uri("/offers/export")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+        Assertions.assertEquals(offerRepository.count(), export.lines().count());
+    }
+
+    @Test
+    void shouldStreamAllOffersReactively(){
+        testClient
+                .get()
+                .uri("/reactive/offers")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(OfferDto.class).hasSize((int) offerRepository.count());
+    }
+
+    @Test
+    void shouldNotBufferReactiveOffersAsJsonArray(){
+        testClient
+                .get()
+                .uri("/reactive/offers")
+                .accept(MediaType.APPLICATION_JSON)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+    }
+
+    @Test
+    void shouldStreamAllOffersReactivelyAsServerSentEvents(){
+        List<OfferDto> offers = testClient
+                .get()
+                .uri("/reactive/offers")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(OfferDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        Assertions.assertEquals(offerRepository.count(), offers.size());
+    }
+
+    @Test
+    void shouldExposeServiceTimersAndErrorCountersForPrometheus(){
+        testClient
+                .get()
+                .uri("/offers/{offerName}", INCORRECT_NAME)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isNotFound();
+        String metrics = testClient
+                .get()
+                .uri("/actuator/prometheus")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+        Assertions.assertTrue(metrics.contains("travelagency_errors_total{exception=\"OfferNotFoundException\",status=\"404\""));
+        Assertions.assertTrue(metrics.contains("travelagency_service_seconds_bucket{class=\"com.sda.travelagency.service.OfferService\""));
+        Assertions.assertTrue(metrics.contains("spring_data_repository_invocations_seconds_count"));
+        Assertions.assertTrue(metrics.contains("hibernate_statements_total"));
+    }
+
+    @Test
+    void shouldNotExposeMetricsToAnonymousClients(){
+        for (String uri : List.of("/actuator/prometheus", "/actuator/metrics")) {
+            testClient
+                    .get()
+                    .uri(uri)
+                    .exchange()
+                    .expectStatus().isUnauthorized();
+            testClient
+                    .get()
+                    .uri(uri)
+                    .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                    .exchange()
+                    .expectStatus().isForbidden();
+        }
+    }
+
+    @Test
+    void shouldNotClearCachesWithoutAdminRole(){
+        testClient
+                .delete()
+                .uri("/actuator/caches")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        testClient
+                .delete()
+                .uri("/actuator/caches")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().isForbidden();
+        testClient
+                .get()
+                .uri("/actuator/caches")
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isOk();
+        testClient
+                .get()
+                .uri("/actuator/health")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldSearchOffersByCombinedCriteriaPageByPage(){
+        OfferDto firstOffer = offerRepository.findAllOfferDtos().get(0);
+        List<OfferDto> expectedOffers = offerRepository.findAllOfferDtos().stream()
+                .filter(offer -> offer.getContinentName().equals(firstOffer.getContinentName()))
+                .filter(offer -> offer.getPrice().compareTo(firstOffer.getPrice()) <= 0)
+                .toList();
+        List<OfferDto> collectedOffers = new ArrayList<>();
+        String cursor = null;
+        do {
+            String currentCursor = cursor;
+            CursorPage<OfferDto> page = testClient
+                    .get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path("/offers/search")
+                            .queryParam("continentName", firstOffer.getContinentName())
+                            .queryParam("maxPrice", firstOffer.getPrice())
+                            .queryParam("sortBy", "PRICE")
+                            .queryParam("direction", "DESC")
+                            .queryParam("size", 1)
+                            .queryParamIfPresent("cursor", Optional.ofNullable(currentCursor))
+                            .build())
+                    .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody(new ParameterizedTypeReference<CursorPage<OfferDto>>() {})
+                    .returnResult().getResponseBody();
+            collectedOffers.addAll(page.getContent());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        Assertions.assertEquals(expectedOffers.size(), collectedOffers.size());
+        Assertions.assertTrue(collectedOffers.containsAll(expectedOffers));
+        for (int i = 1; i < collectedOffers.size(); i++) {
+            Assertions.assertTrue(collectedOffers.get(i - 1).getPrice().compareTo(collectedOffers.get(i).getPrice()) >= 0);
+        }
+    }
+
+    @Test
+    void shouldNotGetReservedOffersWhenAvailableOnly(){
+        Hotel testHotel = hotelRepository.findAll().get(0);
+        OfferDto reservedOffer = new OfferDto(
+                "Reserved offer",
+                testHotel.getName(),
+                testHotel.getCity().getName(),
+                testHotel.getCity().getCountry().getName(),
+                testHotel.getCity().getCountry().getContinent().getName(),
+                PRICE);
+        testClient
+                .post()
+                .uri("/offers/addOffer")
+                .bodyValue(reservedOffer)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isCreated();
+        testClient
+                .put()
+                .uri("/offers/reserve/{offerName}", reservedOffer.getName())
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                .exchange()
+                .expectStatus().is2xxSuccessful();
+        List<String> uris = List.of(
+                "/offers?availableOnly=true",
+                "/offers/filterByPrice?minPrice=0&maxPrice=100000&availableOnly=true",
+                "/offers/filterByHotel?hotelName=" + testHotel.getName() + "&availableOnly=true");
+        for (String uri : uris) {
+            List<OfferDto> offers = testClient
+                    .get()
+                    .uri(uri)
+                    .headers(headersConsumer -> headersConsumer.setBasicAuth("testUser", "password"))
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(OfferDto.class).returnResult().getResponseBody();
+            Assertions.assertTrue(offers.stream().noneMatch(offer -> offer.getName().equals(reservedOffer.getName())), uri);
+        }
+    }
+
+    @Test
+    void shouldImportOffersAndReportFailedRows(){
+        Hotel testHotel = hotelRepository.findAll().get(0);
+        String existingOfferName = offerRepository.findAll().get(0).getName();
+        String offerTemplate = "{\"name\":\"%s\",\"hotelName\":\"%s\",\"cityName\":\"c\",\"countryName\":\"c\",\"continentName\":\"c\",\"price\":120}";
+        String body = String.join("\n",
+                String.format(offerTemplate, "Imported offer 1", testHotel.getName()),
+                String.format(offerTemplate, "Imported offer 2", testHotel.getName()),
+                String.format(offerTemplate, "Imported offer 3", INCORRECT_NAME),
+                "{not json",
+                String.format(offerTemplate, existingOfferName, testHotel.getName()),
+                String.format("{\"name\":\"Imported offer 4\",\"hotelName\":\"%s\",\"price\":90}", testHotel.getName()),
+                String.format("{\"name\":\"Imported offer 5\",\"hotelName\":\"%s\"}", testHotel.getName()));
+        ImportReport report = testClient
+                .post()
+                .uri("/offers/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .headers(headersConsumer -> headersConsumer.setBasicAuth("testAdmin", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ImportReport.class).returnResult().getResponseBody();
+        Assertions.assertEquals(3, report.getImported());
+        Assertions.assertEquals(4, report.getFailed());
+        Assertions.assertEquals(List.of(3, 4, 5, 7), report.getErrors().stream().map(ImportReport.RowError::getLine).sorted().toList());
+        Assertions.assertTrue(offerRepository.existsByName("Imported offer 1"));
+        Assertions.assertTrue(offerRepository.existsByName("Imported offer 2"));
+        Assertions.assertTrue(offerRepository.existsByName("Imported offer 4"));
+    }
+}
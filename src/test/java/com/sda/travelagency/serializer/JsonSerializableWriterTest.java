@@ -0,0 +1,39 @@
+package com.sda.travelagency.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.OfferDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+class JsonSerializableWriterTest {
+
+    private final JsonSerializableWriter writer = JsonSerializableWriter.forPackage(OfferDto.class.getPackageName());
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldWriteOffersLikeJackson() throws Exception {
+        List<OfferDto> offers = List.of(
+                new OfferDto("Kraków_offer", "Hilton \"Old Town\"", "Kraków", "Poland", "Europe", BigDecimal.valueOf(100.50)),
+                new OfferDto("Tab\toffer\\", "Hotel 🏖", "Wrocław", "Poland", "Europe", null));
+        JsonOutput output = new JsonOutput(16);
+
+        writer.writeAll(offers, output);
+
+        Assertions.assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(offers)), objectMapper.readTree(output.toByteArray()));
+    }
+
+    @Test
+    void shouldWriteHotelLikeJackson() throws Exception {
+        HotelDto hotel = new HotelDto("Hilton", new BigDecimal("8.5"), "Kraków");
+        JsonOutput output = new JsonOutput(16);
+
+        writer.write(hotel, output);
+
+        Assertions.assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(hotel)), objectMapper.readTree(output.toByteArray()));
+    }
+}
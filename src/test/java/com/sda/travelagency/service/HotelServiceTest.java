@@ -0,0 +1,92 @@
+package com.sda.travelagency.service;
+
+import com.sda.travelagency.dtos.CursorPage;
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.entities.Offer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HotelServiceTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldListHotelsWithoutTouchingOffers() {
+        List<HotelDto> hotels = hotelService.getAllHotels();
+        List<HotelDto> topHotels = hotelService.getTopHotels();
+        List<HotelDto> hotelsPage = hotelService.getHotelsPage(null, 100).getContent();
+        List<HotelDto> topHotelsPage = hotelService.getTopHotelsPage(null, 100).getContent();
+
+        Assertions.assertFalse(hotels.isEmpty());
+        Assertions.assertFalse(topHotels.isEmpty());
+        Assertions.assertFalse(hotelsPage.isEmpty());
+        Assertions.assertFalse(topHotelsPage.isEmpty());
+        Assertions.assertEquals(0, statistics.getEntityStatistics(Offer.class.getName()).getLoadCount());
+        Assertions.assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    @Test
+    @Transactional
+    void shouldPageTopHotelsInSameOrderAsUnpagedListIncludingUnrated() {
+        hotelService.addHotel(new HotelDto("Unrated_hotel", null, "Kraków"));
+
+        List<HotelDto> topHotels = hotelService.getTopHotels();
+        List<String> pagedNames = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<HotelDto> page = hotelService.getTopHotelsPage(cursor, 1);
+            page.getContent().forEach(hotel -> pagedNames.add(hotel.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        Assertions.assertEquals(topHotels.stream().map(HotelDto::getName).toList(), pagedNames);
+        Assertions.assertEquals("Unrated_hotel", pagedNames.get(pagedNames.size() - 1));
+    }
+
+    @Test
+    @Transactional
+    void shouldPageTopHotelsWithFractionalRatingsWithoutRepeatingRows() {
+        hotelService.addHotel(new HotelDto("Fractional_hotel_1", new BigDecimal("4.7"), "Kraków"));
+        hotelService.addHotel(new HotelDto("Fractional_hotel_2", new BigDecimal("4.7"), "Kraków"));
+        hotelService.addHotel(new HotelDto("Fractional_hotel_3", new BigDecimal("4.3"), "Kraków"));
+
+        List<HotelDto> topHotels = hotelService.getTopHotels();
+        List<String> pagedNames = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<HotelDto> page = hotelService.getTopHotelsPage(cursor, 1);
+            page.getContent().forEach(hotel -> pagedNames.add(hotel.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null && pagedNames.size() <= topHotels.size());
+
+        Assertions.assertEquals(topHotels.stream().map(HotelDto::getName).toList(), pagedNames);
+        Assertions.assertEquals(List.of("Fractional_hotel_2", "Fractional_hotel_1", "Fractional_hotel_3"),
+                pagedNames.stream().filter(name -> name.startsWith("Fractional_hotel")).toList());
+    }
+}
@@ -0,0 +1,231 @@
+package com.sda.travelagency.service;
+
+import com.sda.travelagency.dtos.CursorPage;
+import com.sda.travelagency.dtos.HotelDto;
+import com.sda.travelagency.dtos.OfferDto;
+import com.sda.travelagency.dtos.OfferSearchCriteria;
+import com.sda.travelagency.entities.Hotel;
+import com.sda.travelagency.entities.Offer;
+import com.sda.travelagency.exception.OfferNotAvailableException;
+import com.sda.travelagency.repository.HotelRepository;
+import com.sda.travelagency.repository.OfferRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OfferServiceTest {
+
+    @Autowired
+    private OfferService offerService;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private OfferRepository offerRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OfferPriceIndex offerPriceIndex;
+
+    @Autowired
+    private GeographyDictionary geographyDictionary;
+
+    private final BigDecimal PRICE = BigDecimal.valueOf(100.0);
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldGetAllOffersWithSingleStatement() {
+        List<OfferDto> offers = offerService.getAllOffers();
+
+        Assertions.assertFalse(offers.isEmpty());
+        Assertions.assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReserveEachOfferForExactlyOneOfConcurrentUsers() throws InterruptedException {
+        int offersCount = 5;
+        int attemptsPerOffer = 400;
+        List<String> offerNames = new ArrayList<>();
+        for (int i = 0; i < offersCount; i++) {
+            offerNames.add("Concurrent offer " + i);
+        }
+        transactionTemplate.executeWithoutResult(status -> offerNames.forEach(offerName ->
+                offerRepository.save(new Offer(offerName, PRICE, hotelRepository.findAll().get(0)))));
+
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            for (int attempt = 0; attempt < attemptsPerOffer; attempt++) {
+                for (String offerName : offerNames) {
+                    String username = "user" + attempt;
+                    executor.submit(() -> {
+                        start.await();
+                        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null, List.of()));
+                        try {
+                            offerService.reserveOffer(offerName);
+                            reserved.incrementAndGet();
+                        } catch (OfferNotAvailableException e) {
+                            rejected.incrementAndGet();
+                        } finally {
+                            SecurityContextHolder.clearContext();
+                        }
+                        return null;
+                    });
+                }
+            }
+            start.countDown();
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+            Assertions.assertEquals(offersCount, reserved.get());
+            Assertions.assertEquals(offersCount * (attemptsPerOffer - 1), rejected.get());
+            offerNames.forEach(offerName -> Assertions.assertNotNull(offerRepository.findByName(offerName).orElseThrow().getUserName()));
+        } finally {
+            executor.shutdownNow();
+            offerNames.forEach(offerName -> offerRepository.findByName(offerName).ifPresent(offerRepository::delete));
+        }
+    }
+
+    @Test
+    void shouldFilterByPriceWithIndexConsistentWithDatabase() {
+        offerPriceIndex.reload();
+        BigDecimal minPrice = BigDecimal.ZERO;
+        BigDecimal maxPrice = BigDecimal.valueOf(100000);
+        Assertions.assertEquals(new HashSet<>(offerRepository.findOfferDtosByPriceRange(minPrice, maxPrice)),
+                new HashSet<>(offerPriceIndex.findByPriceRange(minPrice, maxPrice).orElseThrow()));
+
+        OfferDto indexedOffer = new OfferDto("Indexed offer", hotelRepository.findAll().get(0).getName(), null, null, null, BigDecimal.valueOf(321));
+        offerService.addOffer(indexedOffer);
+        statistics.clear();
+        List<OfferDto> offers = offerService.getOfferByPriceGreaterThanAndPriceLessThanOrderByPriceDesc(BigDecimal.valueOf(320), BigDecimal.valueOf(322));
+
+        Assertions.assertTrue(offers.stream().anyMatch(offer -> offer.getName().equals("Indexed offer")));
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+
+        offerService.deleteOffer("Indexed offer");
+        Assertions.assertTrue(offerPriceIndex.findByPriceRange(BigDecimal.valueOf(320), BigDecimal.valueOf(322)).orElseThrow().stream()
+                .noneMatch(offer -> offer.getName().equals("Indexed offer")));
+    }
+
+    @Test
+    void shouldKeepChangesCommittedWhileIndexIsReloaded() throws InterruptedException {
+        String hotelName = hotelRepository.findAll().get(0).getName();
+        Thread reload = new Thread(offerPriceIndex::reload);
+        reload.start();
+        try {
+            for (int i = 0; i < 20; i++) {
+                offerService.addOffer(new OfferDto("Reloaded offer " + i, hotelName, null, null, null, BigDecimal.valueOf(555)));
+            }
+            reload.join();
+            Assertions.assertEquals(20, offerPriceIndex.findByPriceRange(BigDecimal.valueOf(554), BigDecimal.valueOf(556)).orElseThrow().stream()
+                    .filter(offer -> offer.getName().startsWith("Reloaded offer "))
+                    .count());
+        } finally {
+            reload.join();
+            for (int i = 0; i < 20; i++) {
+                offerRepository.findByName("Reloaded offer " + i).ifPresent(offer -> offerService.deleteOffer(offer.getName()));
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    void shouldSearchOffersByFractionalRatingPageByPage() {
+        String cityName = hotelRepository.findAll().get(0).getCity().getName();
+        for (String rating : List.of("4.7", "4.7", "4.3")) {
+            String hotelName = "Rated hotel " + hotelRepository.count();
+            hotelService.addHotel(new HotelDto(hotelName, new BigDecimal(rating), cityName));
+            offerService.addOffer(new OfferDto("Offer rated " + rating + " in " + hotelName, hotelName, null, null, null, PRICE));
+        }
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            OfferSearchCriteria criteria = new OfferSearchCriteria();
+            criteria.setSortBy(OfferSearchCriteria.SortBy.RATING);
+            criteria.setDirection(direction);
+            Assertions.assertEquals(searchAll(criteria, 100), searchAll(criteria, 1), direction.name());
+
+            criteria.setMinRating(new BigDecimal("4.7"));
+            List<String> names = searchAll(criteria, 1);
+            Assertions.assertEquals(2, names.stream().filter(name -> name.startsWith("Offer rated 4.7")).count(), direction.name());
+            Assertions.assertTrue(names.stream().noneMatch(name -> name.startsWith("Offer rated 4.3")), direction.name());
+        }
+    }
+
+    @Test
+    @Transactional
+    void shouldSearchOffersWithoutNameByNamePageByPage() {
+        Hotel hotel = hotelRepository.findAll().get(0);
+        offerRepository.save(new Offer(null, PRICE, hotel));
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            OfferSearchCriteria criteria = new OfferSearchCriteria();
+            criteria.setSortBy(OfferSearchCriteria.SortBy.NAME);
+            criteria.setDirection(direction);
+            List<String> names = searchAll(criteria, 1);
+            Assertions.assertEquals(offerRepository.count(), names.size(), direction.name());
+            Assertions.assertTrue(names.contains(null), direction.name());
+        }
+    }
+
+    private List<String> searchAll(OfferSearchCriteria criteria, int size) {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<OfferDto> page = offerService.searchOffers(criteria, cursor, size);
+            page.getContent().forEach(offer -> names.add(offer.getName()));
+            cursor = page.getNextCursor();
+        } while (cursor != null && names.size() <= offerRepository.count());
+        return names;
+    }
+
+    @Test
+    void shouldResolveKnownNamesWithoutStatements() {
+        Hotel hotel = hotelRepository.findAll().get(0);
+        geographyDictionary.reload();
+        statistics.clear();
+
+        Assertions.assertEquals(hotel.getId(), geographyDictionary.hotelId(hotel.getName()).orElseThrow());
+        Assertions.assertEquals(hotel.getCity().getId(), geographyDictionary.cityId(hotel.getCity().getName()).orElseThrow());
+        Assertions.assertEquals(hotel.getCity().getCountry().getId(), geographyDictionary.countryId(hotel.getCity().getCountry().getName()).orElseThrow());
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+    }
+}